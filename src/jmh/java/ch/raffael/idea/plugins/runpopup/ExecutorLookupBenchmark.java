@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.intellij.execution.Executor;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks the executor lookups of {@link IdeaExecutors} as the popup
+ * calls them for every item, with the capabilities of all run
+ * configurations already cached.
+ *
+ * @author Raffael Herzog
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ExecutorLookupBenchmark {
+
+    @Param({"100", "10000"})
+    public int configurations;
+
+    private Disposable disposable;
+    private List<Executor> executors;
+    private List<RunnerAndConfigurationSettings> runConfigurations;
+    private int next;
+
+    @Setup
+    public void setup() {
+        disposable = Disposer.newDisposable("ExecutorLookupBenchmark");
+        executors = Synthetic.executors();
+        ExecutorIndex executorIndex = new ExecutorIndex(executors);
+        Disposer.register(disposable, executorIndex);
+        Synthetic.application(disposable, executorIndex);
+        // the last executor can't run anything, so canRunWith() sees both answers
+        String unsupported = Synthetic.EXECUTOR_IDS[Synthetic.EXECUTOR_IDS.length - 1];
+        ExecutorCapabilities capabilities = new ExecutorCapabilities((conf, id) -> !id.equals(unsupported));
+        Disposer.register(disposable, capabilities);
+        runConfigurations = Synthetic.runConfigurations(configurations, Synthetic.project(capabilities));
+        for (RunnerAndConfigurationSettings runConfiguration : runConfigurations) {
+            IdeaExecutors.findExecutor(runConfiguration, null);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Disposer.dispose(disposable);
+    }
+
+    private RunnerAndConfigurationSettings nextRunConfiguration() {
+        next = (next + 1) % runConfigurations.size();
+        return runConfigurations.get(next);
+    }
+
+    private String executorId() {
+        return Synthetic.EXECUTOR_IDS[next % Synthetic.EXECUTOR_IDS.length];
+    }
+
+    @Benchmark
+    public Executor findExecutor() {
+        RunnerAndConfigurationSettings runConfiguration = nextRunConfiguration();
+        return IdeaExecutors.findExecutor(runConfiguration, executorId());
+    }
+
+    @Benchmark
+    public Executor defaultExecutor() {
+        return IdeaExecutors.findExecutor(nextRunConfiguration(), null);
+    }
+
+    @Benchmark
+    public Executor displayExecutor() {
+        return IdeaExecutors.displayExecutor(nextRunConfiguration(), null);
+    }
+
+    @Benchmark
+    public boolean canRunWith() {
+        RunnerAndConfigurationSettings runConfiguration = nextRunConfiguration();
+        return IdeaExecutors.canRunWith(runConfiguration, executorId());
+    }
+
+    /**
+     * Baseline: scanning the executor list by ID, as before the index.
+     */
+    @Benchmark
+    public Executor scan() {
+        nextRunConfiguration();
+        String id = executorId();
+        for (Executor executor : executors) {
+            if (executor.getId().equals(id)) {
+                return executor;
+            }
+        }
+        return null;
+    }
+}
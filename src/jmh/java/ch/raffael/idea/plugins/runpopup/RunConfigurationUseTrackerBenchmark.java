@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Benchmarks the operations of the use tracker: touching run configurations,
+ * the lookups done while rendering the popup, saving and loading the state.
+ * The {@code contended} group runs readers and a writer concurrently like
+ * the popup rendering while processes are being launched.
+ *
+ * @author Raffael Herzog
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RunConfigurationUseTrackerBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int configurations;
+
+    private String[] confIds;
+    private RunConfigurationUseTracker tracker;
+    private RunConfigurationUseTracker.State state;
+
+    @Setup
+    public void setup() {
+        List<RunnerAndConfigurationSettings> runConfigurations = Synthetic.runConfigurations(configurations);
+        confIds = runConfigurations.stream().map(RunnerAndConfigurationSettings::getUniqueID).toArray(String[]::new);
+        tracker = Synthetic.tracker(runConfigurations);
+        state = Synthetic.trackerState(runConfigurations);
+    }
+
+    private String randomConfId() {
+        return confIds[ThreadLocalRandom.current().nextInt(confIds.length)];
+    }
+
+    @Benchmark
+    public void touch() {
+        tracker.recordLaunch(randomConfId(), Synthetic.EXECUTOR_IDS[0]);
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) {
+        String confId = randomConfId();
+        blackhole.consume(tracker.getLastRunExecutorId(confId));
+        blackhole.consume(tracker.isFavorite(confId));
+        blackhole.consume(tracker.isHelper(confId));
+        blackhole.consume(tracker.isRunning(confId));
+    }
+
+    @Benchmark
+    public Object getState() {
+        return tracker.getState();
+    }
+
+    @Benchmark
+    public void loadState() {
+        tracker.loadState(state);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void contendedTouch() {
+        touch();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public void contendedRead(Blackhole blackhole) {
+        read(blackhole);
+    }
+}
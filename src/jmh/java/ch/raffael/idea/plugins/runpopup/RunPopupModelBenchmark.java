@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks building the contents of the popup: ordering and partitioning
+ * the run configurations and building the search index.
+ *
+ * @author Raffael Herzog
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RunPopupModelBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int configurations;
+
+    private List<RunnerAndConfigurationSettings> runConfigurations;
+    private RunConfigurationUseTracker tracker;
+    private RunConfigurationUseTracker unsortedTracker;
+    private RunConfSearchIndex searchIndex;
+    private RunConfSearchIndex.Pattern pattern;
+
+    @Setup
+    public void setup() {
+        runConfigurations = Synthetic.runConfigurations(configurations);
+        tracker = Synthetic.tracker(runConfigurations);
+        unsortedTracker = Synthetic.tracker(runConfigurations);
+        unsortedTracker.setOrderFavoritesByLastUsed(false);
+        unsortedTracker.setOrderOthersByLastUsed(false);
+        searchIndex = RunConfSearchIndex.build(runConfigurations, tracker);
+        pattern = RunConfSearchIndex.pattern("rmtwp");
+    }
+
+    @Benchmark
+    public RunPopupModel buildModel() {
+        return RunPopupModel.build(runConfigurations, tracker);
+    }
+
+    @Benchmark
+    public RunPopupModel buildModelInSettingsOrder() {
+        return RunPopupModel.build(runConfigurations, unsortedTracker);
+    }
+
+    @Benchmark
+    public RunConfSearchIndex buildSearchIndex() {
+        return RunConfSearchIndex.build(runConfigurations, tracker);
+    }
+
+    /**
+     * Score all run configurations against a pattern, i.e. one keystroke in
+     * the speed search.
+     */
+    @Benchmark
+    public int scoreAll() {
+        int best = RunConfSearchIndex.NO_MATCH;
+        for (RunnerAndConfigurationSettings conf : runConfigurations) {
+            best = Math.max(best, searchIndex.score(conf.getUniqueID(), pattern));
+        }
+        return best;
+    }
+}
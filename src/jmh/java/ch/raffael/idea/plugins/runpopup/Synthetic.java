@@ -0,0 +1,247 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.Icon;
+
+import com.intellij.execution.Executor;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.execution.configurations.ConfigurationType;
+import com.intellij.execution.configurations.RunConfiguration;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+
+
+/**
+ * Synthetic stand-ins for the application, the project, run configurations
+ * and executors, so the benchmarks run without an IDE.
+ *
+ * @author Raffael Herzog
+ */
+final class Synthetic {
+
+    static final String[] EXECUTOR_IDS = {"Run", "Debug", "Coverage", "Profiler", "JFR"};
+
+    private static final int TYPES = 7;
+    private static final int CONFIGURATIONS_PER_FOLDER = 40;
+
+    private Synthetic() {
+    }
+
+    /**
+     * A project providing the given services, all other services are
+     * {@code null}.
+     */
+    static Project project(Object... services) {
+        return proxy(Project.class, (method, args) -> switch (method) {
+            case "getName" -> "synthetic";
+            case "getService" -> service((Class<?>)args[0], services);
+            default -> null;
+        });
+    }
+
+    /**
+     * Install an application providing the given services until the given
+     * disposable is disposed. All other services are {@code null}.
+     */
+    static void application(Disposable parentDisposable, Object... services) {
+        ApplicationManager.setApplication(proxy(Application.class, (method, args) -> switch (method) {
+            case "getService" -> service((Class<?>)args[0], services);
+            default -> null;
+        }), parentDisposable);
+    }
+
+    private static Object service(Class<?> serviceClass, Object[] services) {
+        for (Object service : services) {
+            if (serviceClass.isInstance(service)) {
+                return service;
+            }
+        }
+        return null;
+    }
+
+    static List<RunnerAndConfigurationSettings> runConfigurations(int count) {
+        return runConfigurations(count, project());
+    }
+
+    /**
+     * Create run configurations of the given project named like generated
+     * per-module test configurations, every 40 of them in a folder of their
+     * own.
+     */
+    static List<RunnerAndConfigurationSettings> runConfigurations(int count, Project project) {
+        List<ConfigurationType> types = new ArrayList<>();
+        for (int i = 0; i < TYPES; i++) {
+            String name = "Type " + i;
+            types.add(proxy(ConfigurationType.class, (method, args) -> switch (method) {
+                case "getId", "getDisplayName" -> name;
+                default -> null;
+            }));
+        }
+        List<RunnerAndConfigurationSettings> confs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = "conf-" + i;
+            String name = "Run Module" + (i / CONFIGURATIONS_PER_FOLDER) + "Tests with profile " + i;
+            String folder = "Folder " + (i / CONFIGURATIONS_PER_FOLDER);
+            ConfigurationType type = types.get(i % TYPES);
+            RunConfiguration configuration = proxy(RunConfiguration.class, (method, args) -> switch (method) {
+                case "getName" -> name;
+                case "getType" -> type;
+                case "getProject" -> project;
+                default -> null;
+            });
+            confs.add(proxy(RunnerAndConfigurationSettings.class, (method, args) -> switch (method) {
+                case "getUniqueID" -> id;
+                case "getConfiguration" -> configuration;
+                case "getName" -> name;
+                case "getFolderName" -> folder;
+                case "getType" -> type;
+                case "isTemporary" -> false;
+                default -> null;
+            }));
+        }
+        return confs;
+    }
+
+    /**
+     * Create a tracker state where half of the run configurations have been
+     * used, every 10th is a favorite and every 20th a helper.
+     */
+    static RunConfigurationUseTracker.State trackerState(List<RunnerAndConfigurationSettings> runConfigurations) {
+        RunConfigurationUseTracker.State state = new RunConfigurationUseTracker.State();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < runConfigurations.size(); i++) {
+            String confId = runConfigurations.get(i).getUniqueID();
+            boolean favorite = i % 10 == 0;
+            boolean helper = i % 20 == 5;
+            if (i % 2 == 0 || helper) {
+                var rci = new RunConfigurationUseTracker.RunConfInfo(confId, EXECUTOR_IDS[i % EXECUTOR_IDS.length]);
+                // scramble the order of use a bit
+                rci.timestamp = now - (i * 7919L) % (runConfigurations.size() * 1000L + 1);
+                rci.favorite = favorite;
+                rci.helper = helper;
+                state.runConfInfo.put(confId, rci);
+            }
+        }
+        return state;
+    }
+
+    static RunConfigurationUseTracker tracker(List<RunnerAndConfigurationSettings> runConfigurations) {
+        RunConfigurationUseTracker tracker = new RunConfigurationUseTracker(project());
+        tracker.loadState(trackerState(runConfigurations));
+        return tracker;
+    }
+
+    static List<Executor> executors() {
+        List<Executor> executors = new ArrayList<>();
+        for (String id : EXECUTOR_IDS) {
+            executors.add(new SyntheticExecutor(id));
+        }
+        return executors;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(Synthetic.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> type.getSimpleName() + "@" + System.identityHashCode(proxy);
+                    default -> {
+                        Object result = handler.invoke(method.getName(), args);
+                        // primitive booleans like isDisposed() can't be null
+                        yield result == null && method.getReturnType() == boolean.class ? Boolean.FALSE : result;
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static final class SyntheticExecutor extends Executor {
+        private final String id;
+
+        private SyntheticExecutor(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getToolWindowId() {
+            return id;
+        }
+
+        @Override
+        public Icon getToolWindowIcon() {
+            return null;
+        }
+
+        @Override
+        public Icon getIcon() {
+            return null;
+        }
+
+        @Override
+        public Icon getDisabledIcon() {
+            return null;
+        }
+
+        @Override
+        public String getDescription() {
+            return id;
+        }
+
+        @Override
+        public String getActionName() {
+            return id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getStartActionText() {
+            return id;
+        }
+
+        @Override
+        public String getContextActionId() {
+            return id;
+        }
+
+        @Override
+        public String getHelpId() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.openapi.actionSystem.ActionGroup;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.Separator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static ch.raffael.idea.plugins.runpopup.RunConfActionPool.runConfActionPool;
+import static ch.raffael.idea.plugins.runpopup.RunConfigurationUseTracker.runConfigurationUseTracker;
+import static ch.raffael.idea.plugins.runpopup.RunPopupLatency.runPopupLatency;
+import static ch.raffael.idea.plugins.runpopup.RunPopupSnapshot.runPopupSnapshot;
+
+
+/**
+ * Action group for the run popup showing all open projects: the favorites
+ * and the most recently used run configurations of each project, merged by
+ * last use.
+ *
+ * @author Raffael Herzog
+ */
+class AllProjectsActionGroup extends ActionGroup {
+
+    private static final int RECENT_PER_PROJECT = 5;
+
+    private static final Comparator<Entry> BY_LAST_USE =
+            Comparator.comparingLong((Entry entry) -> entry.lastUsed).reversed();
+
+    private volatile List<Project> outdatedProjects = List.of();
+
+    AllProjectsActionGroup() {
+        super();
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @NotNull
+    @Override
+    public AnAction[] getChildren(@Nullable AnActionEvent e) {
+        long start = RunPopupLatency.start();
+        List<Entry> favorites = new ArrayList<>();
+        List<Entry> recent = new ArrayList<>();
+        List<AnAction> loading = new ArrayList<>();
+        List<Project> outdated = new ArrayList<>();
+        for (Project project : ProjectManager.getInstance().getOpenProjects()) {
+            if (project.isDisposed()) {
+                continue;
+            }
+            var snapshot = runPopupSnapshot(project);
+            // schedules a rebuild if needed
+            var model = snapshot.currentModel();
+            if (!snapshot.isUpToDate()) {
+                outdated.add(project);
+            }
+            if (model == null) {
+                loading.add(new LoadingAction(project));
+            }
+            else {
+                var entries = ProjectEntries.gather(project, model);
+                favorites.addAll(entries.favorites);
+                recent.addAll(entries.recent);
+            }
+        }
+        outdatedProjects = List.copyOf(outdated);
+        favorites.sort(BY_LAST_USE);
+        recent.sort(BY_LAST_USE);
+        List<AnAction> children = new ArrayList<>();
+        if (!favorites.isEmpty()) {
+            children.add(new Separator("Favorites"));
+            favorites.forEach(entry -> children.add(entry.action()));
+        }
+        if (!recent.isEmpty()) {
+            children.add(new Separator("Recent"));
+            recent.forEach(entry -> children.add(entry.action()));
+        }
+        if (!loading.isEmpty()) {
+            children.add(new Separator());
+            children.addAll(loading);
+        }
+        AnAction[] result = children.toArray(AnAction.EMPTY_ARRAY);
+        runPopupLatency().record(RunPopupLatency.Timer.POPUP_CHILDREN, start);
+        return result;
+    }
+
+    /**
+     * The projects whose snapshots were outdated or missing when the
+     * children have last been built.
+     */
+    @NotNull
+    List<Project> getOutdatedProjects() {
+        return outdatedProjects;
+    }
+
+    /**
+     * The entries of one project: all favorites and the most recently used
+     * other run configurations.
+     */
+    private static final class ProjectEntries {
+        private final List<Entry> favorites;
+        private final List<Entry> recent;
+
+        private ProjectEntries(List<Entry> favorites, List<Entry> recent) {
+            this.favorites = favorites;
+            this.recent = recent;
+        }
+
+        @NotNull
+        private static ProjectEntries gather(Project project, RunPopupModel model) {
+            var tracker = runConfigurationUseTracker(project);
+            List<Entry> favorites = new ArrayList<>(model.getFavorites().size());
+            for (RunnerAndConfigurationSettings conf : model.getFavorites()) {
+                favorites.add(new Entry(project, conf, tracker.getLastRunTimestamp(conf.getUniqueID())));
+            }
+            List<Entry> recent = new ArrayList<>();
+            for (RunnerAndConfigurationSettings conf : model.getOthers()) {
+                long lastUsed = tracker.getLastRunTimestamp(conf.getUniqueID());
+                if (lastUsed > 0) {
+                    recent.add(new Entry(project, conf, lastUsed));
+                }
+            }
+            recent.sort(BY_LAST_USE);
+            return new ProjectEntries(favorites,
+                    List.copyOf(recent.subList(0, Math.min(recent.size(), RECENT_PER_PROJECT))));
+        }
+    }
+
+    private static final class Entry {
+        private final Project project;
+        private final RunnerAndConfigurationSettings runConfiguration;
+        private final long lastUsed;
+
+        private Entry(Project project, RunnerAndConfigurationSettings runConfiguration, long lastUsed) {
+            this.project = project;
+            this.runConfiguration = runConfiguration;
+            this.lastUsed = lastUsed;
+        }
+
+        @NotNull
+        private AnAction action() {
+            return runConfActionPool(project).actionWithProjectName(runConfiguration);
+        }
+    }
+
+    private static final class LoadingAction extends AnAction {
+        private LoadingAction(Project project) {
+            super(project.getName() + ": loading\u2026");
+        }
+
+        @Override
+        public void actionPerformed(@NotNull AnActionEvent e) {
+        }
+
+        @Override
+        public @NotNull ActionUpdateThread getActionUpdateThread() {
+            return ActionUpdateThread.BGT;
+        }
+
+        @Override
+        public void update(@NotNull AnActionEvent e) {
+            e.getPresentation().setEnabled(false);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.ui.popup.JBPopupListener;
+import com.intellij.openapi.ui.popup.LightweightWindowEvent;
+import com.intellij.ui.LayeredIcon;
+import org.jetbrains.annotations.NotNull;
+
+import static ch.raffael.idea.plugins.runpopup.ExecutorCapabilities.executorCapabilities;
+import static ch.raffael.idea.plugins.runpopup.RunConfigurationValidator.runConfigurationValidator;
+import static ch.raffael.idea.plugins.runpopup.RunPopupLatency.runPopupLatency;
+import static ch.raffael.idea.plugins.runpopup.RunPopupSnapshot.runPopupSnapshot;
+
+
+/**
+ * A run popup listing the favorites and recently used run configurations
+ * of all open projects. The run configurations are launched in their own
+ * project, without switching windows.
+ *
+ * @author Raffael Herzog
+ */
+public class AllProjectsRunPopupAction extends AnAction {
+
+    public AllProjectsRunPopupAction() {
+        getTemplatePresentation().setText("Run Popup (All Projects)");
+        getTemplatePresentation().setDescription("Show a run popup menu for all open projects");
+        getTemplatePresentation().setIcon(LayeredIcon.create(AllIcons.Actions.Execute, AllIcons.General.Dropdown));
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if ( project == null ) {
+            return;
+        }
+        showPopup(project, e.getDataContext(), true);
+    }
+
+    /**
+     * @param refresh Whether to show the popup again once the snapshots of
+     *                all projects are up to date if some of them were
+     *                outdated or missing.
+     */
+    private static void showPopup(Project project, DataContext dataContext, boolean refresh) {
+        long start = RunPopupLatency.start();
+        AllProjectsActionGroup group = new AllProjectsActionGroup();
+        var popup = new RunConfListPopup("Run (All Projects)", group, dataContext);
+        popup.addListener(new JBPopupListener() {
+            @Override
+            public void onClosed(@NotNull LightweightWindowEvent event) {
+                for (Project p : ProjectManager.getInstance().getOpenProjects()) {
+                    if ( !p.isDisposed() ) {
+                        runConfigurationValidator(p).cancelPending();
+                        executorCapabilities(p).cancelPending();
+                    }
+                }
+            }
+        });
+        popup.showCenteredInCurrentWindow(project);
+        popup.shown();
+        var outdated = group.getOutdatedProjects();
+        if ( refresh && !outdated.isEmpty() ) {
+            AtomicInteger remaining = new AtomicInteger(outdated.size());
+            for (Project p : outdated) {
+                runPopupSnapshot(p).whenUpToDate(() -> {
+                    if ( remaining.decrementAndGet() == 0 ) {
+                        SwingUtilities.invokeLater(() -> {
+                            if ( popup.isUntouched() && !project.isDisposed() ) {
+                                popup.cancel();
+                                showPopup(project, dataContext, false);
+                            }
+                        });
+                    }
+                });
+            }
+        }
+        runPopupLatency().record(RunPopupLatency.Timer.POPUP_OPEN, start);
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.EDT;
+    }
+}
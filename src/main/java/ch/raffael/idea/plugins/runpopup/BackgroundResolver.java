@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+
+/**
+ * Resolves values per run configuration in non-blocking read actions and
+ * notifies listeners about the results, for the caches the popup items
+ * query while the popup is showing.
+ *
+ * @author Raffael Herzog
+ */
+final class BackgroundResolver<T> {
+
+    private final Disposable parent;
+    private final String name;
+    private final ExecutorService executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<Disposable> pendingScope;
+    private final List<Consumer<String>> resultListeners = new CopyOnWriteArrayList<>();
+
+    BackgroundResolver(Disposable parent, String name, int maxThreads) {
+        this.parent = parent;
+        this.name = name;
+        executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(name, maxThreads);
+        pendingScope = new AtomicReference<>(newPendingScope());
+    }
+
+    /**
+     * Resolve a value for the given run configuration unless it's already
+     * being resolved. Non-null results are passed to {@code result}, then
+     * the listeners are notified.
+     */
+    void schedule(String confId, Callable<? extends T> resolve, Consumer<? super T> result) {
+        if (!pending.add(confId)) {
+            return;
+        }
+        ReadAction.nonBlocking(resolve)
+                .expireWith(pendingScope.get())
+                .submit(executor)
+                .onProcessed(value -> {
+                    pending.remove(confId);
+                    if (value != null) {
+                        result.accept(value);
+                        for (Consumer<String> listener : resultListeners) {
+                            listener.accept(confId);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Add a listener that will be called with the ID of the run
+     * configuration whenever a value has been resolved. Listeners may be
+     * called from any thread, they should return quickly.
+     */
+    void addResultListener(Consumer<String> listener, Disposable parentDisposable) {
+        resultListeners.add(listener);
+        Disposer.register(parentDisposable, () -> resultListeners.remove(listener));
+    }
+
+    /**
+     * Cancel all pending resolutions. They'll be scheduled again when
+     * requested.
+     */
+    void cancelPending() {
+        Disposer.dispose(pendingScope.getAndSet(newPendingScope()));
+    }
+
+    @NotNull
+    private Disposable newPendingScope() {
+        return Disposer.newDisposable(parent, name + " (pending)");
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import com.intellij.execution.BeforeRunTask;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.execution.configurations.RunProfileWithCompileBeforeLaunchOption;
+import com.intellij.openapi.module.Module;
+import org.jetbrains.annotations.NotNull;
+
+
+/**
+ * The build a run configuration does before launch.
+ *
+ * @author Raffael Herzog
+ */
+final class BeforeLaunchBuild {
+
+    /**
+     * The provider IDs of the platform's Make before-run tasks (with and
+     * without error check). The plugin only depends on the platform, so the
+     * Java plugin's {@code CompileStepBeforeRun.ID} can't be referenced
+     * directly.
+     */
+    private static final Set<String> MAKE_TASK_IDS = Set.of("Make", "MakeNoErrorCheck");
+
+    private BeforeLaunchBuild() {
+    }
+
+    /**
+     * The modules the given run configuration builds before launch, empty if
+     * it doesn't have an enabled Make before-run task. Other before-run tasks
+     * (e.g. Gradle or npm tasks) are ignored.
+     */
+    @NotNull
+    static Set<Module> modules(RunnerAndConfigurationSettings settings) {
+        var configuration = settings.getConfiguration();
+        if (!(configuration instanceof RunProfileWithCompileBeforeLaunchOption)
+                || ((RunProfileWithCompileBeforeLaunchOption) configuration).isExcludeCompileBeforeLaunchOption()
+                || configuration.getBeforeRunTasks().stream().noneMatch(BeforeLaunchBuild::isMake)) {
+            return Set.of();
+        }
+        var modules = ((RunProfileWithCompileBeforeLaunchOption) configuration).getModules();
+        return Set.copyOf(Arrays.asList(modules));
+    }
+
+    private static boolean isMake(BeforeRunTask<?> task) {
+        return task.isEnabled() && MAKE_TASK_IDS.contains(String.valueOf(task.getProviderId()));
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.intellij.execution.ExecutionListener;
+import com.intellij.execution.Executor;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.execution.runners.ExecutionUtil;
+import com.intellij.execution.ui.RunContentDescriptor;
+import com.intellij.execution.ui.RunContentWithExecutorListener;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static ch.raffael.idea.plugins.runpopup.ExecutorIndex.executorIndex;
+
+
+/**
+ * Keeps the last execution environments of the run configurations, so
+ * relaunching doesn't need to resolve the runner and build a new
+ * environment.
+ *
+ * @author Raffael Herzog
+ */
+@Service(Service.Level.PROJECT)
+final class EnvironmentCache implements Disposable {
+
+    private static final int MAX_ENTRIES = 32;
+
+    /**
+     * In access order, guarded by itself.
+     */
+    private final Map<RunConfExecutorKey, Entry> environments = new LinkedHashMap<>(16, .75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RunConfExecutorKey, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    @Nullable
+    private volatile RunConfExecutorKey lastLaunched = null;
+
+    EnvironmentCache() {
+        executorIndex().addChangeListener(this::clear, this);
+    }
+
+    @NotNull
+    static EnvironmentCache environmentCache(Project project) {
+        return Objects.requireNonNull(project.getService(EnvironmentCache.class),
+                "project.getService(EnvironmentCache.class)");
+    }
+
+    @Nullable
+    ExecutionEnvironment environment(String confId, String executorId) {
+        return environment(new RunConfExecutorKey(confId, executorId));
+    }
+
+    /**
+     * The environment of the last launch, if it's still valid.
+     */
+    @Nullable
+    ExecutionEnvironment lastLaunched() {
+        var key = lastLaunched;
+        return key == null ? null : environment(key);
+    }
+
+    @Nullable
+    private ExecutionEnvironment environment(RunConfExecutorKey key) {
+        synchronized (environments) {
+            var entry = environments.get(key);
+            return entry == null ? null : entry.environment;
+        }
+    }
+
+    /**
+     * Relaunch the given environment, stopping its running process first.
+     * Must be called on the EDT.
+     */
+    static void relaunch(ExecutionEnvironment environment) {
+        var settings = environment.getRunnerAndConfigurationSettings();
+        if (settings != null) {
+            RunConfigurationUseTracker.runConfigurationUseTracker(environment.getProject())
+                    .touchRunConfiguration(settings.getUniqueID(), environment.getExecutor().getId());
+        }
+        ExecutionUtil.restart(environment);
+    }
+
+    private void put(String executorId, ExecutionEnvironment environment) {
+        var settings = environment.getRunnerAndConfigurationSettings();
+        if (settings == null) {
+            return;
+        }
+        RunConfExecutorKey key = new RunConfExecutorKey(settings.getUniqueID(), executorId);
+        synchronized (environments) {
+            environments.put(key, new Entry(environment));
+        }
+        lastLaunched = key;
+    }
+
+    /**
+     * Remember the process of a cached environment, to find it again when
+     * its run content is closed.
+     */
+    private void started(ExecutionEnvironment environment, ProcessHandler handler) {
+        synchronized (environments) {
+            // don't touch the access order
+            for (Entry entry : environments.values()) {
+                if (entry.environment == environment) {
+                    entry.handler = handler;
+                }
+            }
+        }
+    }
+
+    private void contentRemoved(RunContentDescriptor descriptor) {
+        var handler = descriptor.getProcessHandler();
+        synchronized (environments) {
+            environments.values().removeIf(entry -> entry.environment.getContentToReuse() == descriptor
+                    || (handler != null && entry.handler == handler));
+        }
+    }
+
+    void forget(String confId) {
+        synchronized (environments) {
+            environments.keySet().removeIf(k -> k.confId.equals(confId));
+        }
+    }
+
+    void clear() {
+        synchronized (environments) {
+            environments.clear();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        clear();
+    }
+
+    /**
+     * Guarded by the map.
+     */
+    private static final class Entry {
+        private final ExecutionEnvironment environment;
+        @Nullable
+        private ProcessHandler handler = null;
+
+        private Entry(ExecutionEnvironment environment) {
+            this.environment = environment;
+        }
+    }
+
+    public static class MyExecutionListener implements ExecutionListener {
+        @Override
+        public void processStartScheduled(@NotNull String executorId, @NotNull ExecutionEnvironment env) {
+            environmentCache(env.getProject()).put(executorId, env);
+        }
+
+        @Override
+        public void processStarted(@NotNull String executorId, @NotNull ExecutionEnvironment env, @NotNull ProcessHandler handler) {
+            environmentCache(env.getProject()).started(env, handler);
+        }
+    }
+
+    public static class MyRunContentListener implements RunContentWithExecutorListener {
+        private final Project project;
+
+        public MyRunContentListener(Project project) {
+            this.project = project;
+        }
+
+        @Override
+        public void contentSelected(@Nullable RunContentDescriptor descriptor, @NotNull Executor executor) {
+        }
+
+        @Override
+        public void contentRemoved(@Nullable RunContentDescriptor descriptor, @NotNull Executor executor) {
+            if (descriptor != null) {
+                environmentCache(project).contentRemoved(descriptor);
+            }
+        }
+    }
+}
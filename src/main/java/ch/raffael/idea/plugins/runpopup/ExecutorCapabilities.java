@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+import com.intellij.execution.Executor;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static ch.raffael.idea.plugins.runpopup.ExecutorIndex.executorIndex;
+
+
+/**
+ * Caches which executors can run a run configuration and its default
+ * executor, so rendering the popup doesn't need to resolve the program
+ * runners again and again.
+ *
+ * @author Raffael Herzog
+ */
+@Service(Service.Level.PROJECT)
+final class ExecutorCapabilities implements Disposable {
+
+    private final Map<String, Capabilities> capabilities = new ConcurrentHashMap<>();
+    private final AtomicLong modificationStamp = new AtomicLong();
+    private final BackgroundResolver<Capabilities> resolver =
+            new BackgroundResolver<>(this, "Run Popup Executor Capabilities", 1);
+    private final BiPredicate<RunnerAndConfigurationSettings, String> resolveCanRunWith;
+
+    ExecutorCapabilities() {
+        this(IdeaExecutors::resolveCanRunWith);
+    }
+
+    /**
+     * @param resolveCanRunWith Resolves whether a run configuration can be
+     *                          run with an executor, the benchmarks replace
+     *                          the program runners with it.
+     */
+    ExecutorCapabilities(BiPredicate<RunnerAndConfigurationSettings, String> resolveCanRunWith) {
+        this.resolveCanRunWith = resolveCanRunWith;
+        executorIndex().addChangeListener(this::invalidate, this);
+    }
+
+    @NotNull
+    static ExecutorCapabilities executorCapabilities(Project project) {
+        return Objects.requireNonNull(project.getService(ExecutorCapabilities.class),
+                "project.getService(ExecutorCapabilities.class)");
+    }
+
+    boolean canRunWith(RunnerAndConfigurationSettings runConfiguration, String executorId) {
+        return capabilities(runConfiguration).executorIds.contains(executorId);
+    }
+
+    /**
+     * The first executor that can run the given run configuration,
+     * {@code null} if there's none. Resolves it if it isn't known yet.
+     */
+    @Nullable
+    Executor defaultExecutor(RunnerAndConfigurationSettings runConfiguration) {
+        return capabilities(runConfiguration).defaultExecutor;
+    }
+
+    /**
+     * The executor to display the given run configuration with: its default
+     * executor if that's known, {@code null} if there's none. If it isn't
+     * known yet, it will be resolved in the background and the platform's
+     * default executor returned. Only for display, use
+     * {@link #defaultExecutor} to launch.
+     */
+    @Nullable
+    Executor displayExecutor(RunnerAndConfigurationSettings runConfiguration) {
+        long stamp = modificationStamp.get();
+        Capabilities current = cached(runConfiguration, stamp);
+        if (current != null) {
+            return current.defaultExecutor;
+        }
+        scheduleResolve(runConfiguration);
+        return executorIndex().defaultExecutor();
+    }
+
+    private void scheduleResolve(RunnerAndConfigurationSettings runConfiguration) {
+        // capabilities() caches the result itself
+        resolver.schedule(runConfiguration.getUniqueID(), () -> capabilities(runConfiguration), c -> {});
+    }
+
+    /**
+     * Add a listener that will be called with the ID of the run
+     * configuration whenever its default executor has been resolved in the
+     * background, see {@link BackgroundResolver#addResultListener}.
+     */
+    void addResultListener(Consumer<String> listener, Disposable parentDisposable) {
+        resolver.addResultListener(listener, parentDisposable);
+    }
+
+    /**
+     * Cancel all pending background resolutions, e.g. because the popup has
+     * been closed.
+     */
+    void cancelPending() {
+        resolver.cancelPending();
+    }
+
+    @Nullable
+    private Capabilities cached(RunnerAndConfigurationSettings runConfiguration, long stamp) {
+        Capabilities current = capabilities.get(runConfiguration.getUniqueID());
+        return current != null && current.runConfiguration == runConfiguration && current.stamp == stamp
+               ? current
+               : null;
+    }
+
+    @NotNull
+    private Capabilities capabilities(RunnerAndConfigurationSettings runConfiguration) {
+        long stamp = modificationStamp.get();
+        Capabilities current = cached(runConfiguration, stamp);
+        if (current != null) {
+            return current;
+        }
+        Set<String> executorIds = new HashSet<>();
+        Executor defaultExecutor = null;
+        for (Executor executor : executorIndex().executors()) {
+            if (resolveCanRunWith.test(runConfiguration, executor.getId())) {
+                executorIds.add(executor.getId());
+                if (defaultExecutor == null) {
+                    defaultExecutor = executor;
+                }
+            }
+        }
+        Capabilities computed = new Capabilities(runConfiguration, stamp, Set.copyOf(executorIds), defaultExecutor);
+        capabilities.put(runConfiguration.getUniqueID(), computed);
+        return computed;
+    }
+
+    void forget(String confId) {
+        capabilities.remove(confId);
+    }
+
+    /**
+     * Invalidate all cached capabilities and cancel the pending background
+     * resolutions, like {@link RunConfigurationValidator#invalidate()}.
+     */
+    void invalidate() {
+        modificationStamp.incrementAndGet();
+        cancelPending();
+    }
+
+    @Override
+    public void dispose() {
+        capabilities.clear();
+    }
+
+    private static final class Capabilities {
+        private final RunnerAndConfigurationSettings runConfiguration;
+        private final long stamp;
+        private final Set<String> executorIds;
+        @Nullable
+        private final Executor defaultExecutor;
+
+        private Capabilities(RunnerAndConfigurationSettings runConfiguration, long stamp,
+                             Set<String> executorIds, @Nullable Executor defaultExecutor) {
+            this.runConfiguration = runConfiguration;
+            this.stamp = stamp;
+            this.executorIds = executorIds;
+            this.defaultExecutor = defaultExecutor;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.intellij.execution.Executor;
+import com.intellij.execution.runners.ProgramRunner;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.util.Disposer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * Index of the registered executors by ID, rebuilt when executors are added
+ * or removed. Caches depending on the executors or program runners listen
+ * to it instead of the extension points.
+ *
+ * @author Raffael Herzog
+ */
+@Service(Service.Level.APP)
+final class ExecutorIndex implements Disposable {
+
+    private volatile Snapshot snapshot;
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    ExecutorIndex() {
+        snapshot = new Snapshot(Executor.EXECUTOR_EXTENSION_NAME.getExtensionList());
+        Executor.EXECUTOR_EXTENSION_NAME.addChangeListener(() -> {
+            snapshot = new Snapshot(Executor.EXECUTOR_EXTENSION_NAME.getExtensionList());
+            changed();
+        }, this);
+        ProgramRunner.PROGRAM_RUNNER_EP.addChangeListener(this::changed, this);
+    }
+
+    /**
+     * An index of the given executors that doesn't follow the extension
+     * points, for the benchmarks.
+     */
+    ExecutorIndex(List<Executor> executors) {
+        snapshot = new Snapshot(executors);
+    }
+
+    @NotNull
+    static ExecutorIndex executorIndex() {
+        return Objects.requireNonNull(ApplicationManager.getApplication().getService(ExecutorIndex.class),
+                "getApplication().getService(ExecutorIndex.class)");
+    }
+
+    /**
+     * All executors in the order of registration. The list is immutable.
+     */
+    @NotNull
+    List<Executor> executors() {
+        return snapshot.executors;
+    }
+
+    @Nullable
+    Executor byId(String id) {
+        return snapshot.byId(id);
+    }
+
+    /**
+     * The first registered executor, usually "Run".
+     */
+    @Nullable
+    Executor defaultExecutor() {
+        var executors = snapshot.executors;
+        return executors.isEmpty() ? null : executors.get(0);
+    }
+
+    /**
+     * Add a listener that will be notified after executors or program
+     * runners have been added or removed.
+     */
+    void addChangeListener(Runnable listener, Disposable parentDisposable) {
+        changeListeners.add(listener);
+        Disposer.register(parentDisposable, () -> changeListeners.remove(listener));
+    }
+
+    private void changed() {
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    static final class Snapshot {
+        private final List<Executor> executors;
+        private final Map<String, Executor> byId;
+
+        Snapshot(List<Executor> executors) {
+            this.executors = List.copyOf(executors);
+            Map<String, Executor> byId = new HashMap<>();
+            for (Executor executor : this.executors) {
+                byId.putIfAbsent(executor.getId(), executor);
+            }
+            this.byId = Map.copyOf(byId);
+        }
+
+        @Nullable
+        Executor byId(String id) {
+            return byId.get(id);
+        }
+    }
+}
@@ -27,6 +27,9 @@ import com.intellij.execution.RunnerAndConfigurationSettings;
 import com.intellij.execution.runners.ProgramRunner;
 import org.jetbrains.annotations.Nullable;
 
+import static ch.raffael.idea.plugins.runpopup.ExecutorCapabilities.executorCapabilities;
+import static ch.raffael.idea.plugins.runpopup.ExecutorIndex.executorIndex;
+
 
 final class IdeaExecutors {
 
@@ -35,26 +38,42 @@ final class IdeaExecutors {
 
     @Nullable
     static Executor findExecutor(RunnerAndConfigurationSettings runConfiguration, @Nullable String id) {
-        var executors = Executor.EXECUTOR_EXTENSION_NAME.getExtensionList();
         if ( id != null ) {
-            for ( Executor executor : executors ) {
-                if ( executor.getId().equals(id) ) {
-                    return executor;
-                }
-            }
+            return executorIndex().byId(id);
+        }
+        else {
+            return capabilities(runConfiguration).defaultExecutor(runConfiguration);
+        }
+    }
+
+    /**
+     * Like {@link #findExecutor}, but doesn't wait for the default executor
+     * to be resolved, see {@link ExecutorCapabilities#displayExecutor}.
+     */
+    @Nullable
+    static Executor displayExecutor(RunnerAndConfigurationSettings runConfiguration, @Nullable String id) {
+        if ( id != null ) {
+            return executorIndex().byId(id);
         }
         else {
-            for ( Executor executor : executors ) {
-                if ( canRunWith(runConfiguration, executor.getId()) ) {
-                    return executor;
-                }
-            }
+            return capabilities(runConfiguration).displayExecutor(runConfiguration);
         }
-        return null;
     }
 
     static boolean canRunWith(RunnerAndConfigurationSettings runConfiguration, String executorId) {
+        return capabilities(runConfiguration).canRunWith(runConfiguration, executorId);
+    }
+
+    /**
+     * Resolve the program runner to check whether the run configuration can
+     * be run with the given executor, bypassing the cache.
+     */
+    static boolean resolveCanRunWith(RunnerAndConfigurationSettings runConfiguration, String executorId) {
         var runner = ProgramRunner.getRunner(executorId, runConfiguration.getConfiguration());
         return runner != null && runner.canRun(executorId, runConfiguration.getConfiguration());
     }
+
+    private static ExecutorCapabilities capabilities(RunnerAndConfigurationSettings runConfiguration) {
+        return executorCapabilities(runConfiguration.getConfiguration().getProject());
+    }
 }
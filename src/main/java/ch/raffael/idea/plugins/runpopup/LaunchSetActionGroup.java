@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionGroup;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static ch.raffael.idea.plugins.runpopup.RunConfigurationUseTracker.runConfigurationUseTracker;
+
+
+/**
+ * Action group for the submenu of each launch set entry. Choosing the entry
+ * itself launches the launch set.
+ *
+ * @author Raffael Herzog
+ */
+class LaunchSetActionGroup extends ActionGroup {
+
+    private final RunConfigurationUseTracker.LaunchSet launchSet;
+    private final AnAction[] children;
+
+    LaunchSetActionGroup(RunConfigurationUseTracker.LaunchSet launchSet) {
+        super(launchSet.name, null, AllIcons.Actions.Execute);
+        this.launchSet = launchSet;
+        getTemplatePresentation().setPopupGroup(true);
+        getTemplatePresentation().setPerformGroup(true);
+        children = new AnAction[] {
+                new AnAction("Launch " + launchSet.confIds.size() + " Run Configurations", null, AllIcons.Actions.Execute) {
+                    @Override
+                    public void actionPerformed(@NotNull AnActionEvent e) {
+                        LaunchSetActionGroup.this.actionPerformed(e);
+                    }
+
+                    @Override
+                    public @NotNull ActionUpdateThread getActionUpdateThread() {
+                        return ActionUpdateThread.BGT;
+                    }
+                },
+                new AnAction("Remove Launch Set") {
+                    @Override
+                    public void actionPerformed(@NotNull AnActionEvent e) {
+                        Project project = e.getProject();
+                        if ( project != null ) {
+                            runConfigurationUseTracker(project).removeLaunchSet(launchSet.name);
+                        }
+                    }
+
+                    @Override
+                    public @NotNull ActionUpdateThread getActionUpdateThread() {
+                        return ActionUpdateThread.BGT;
+                    }
+                }};
+    }
+
+    @Override
+    public void actionPerformed(AnActionEvent e) {
+        Project project = e.getProject();
+        if ( project != null ) {
+            LaunchSetRunner.launch(project, launchSet);
+        }
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @NotNull
+    @Override
+    public AnAction[] getChildren(@Nullable AnActionEvent e) {
+        return children;
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.intellij.execution.ExecutionListener;
+import com.intellij.execution.ExecutionManager;
+import com.intellij.execution.Executor;
+import com.intellij.execution.RunManager;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.execution.runners.ExecutionUtil;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.wm.StatusBar;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import static ch.raffael.idea.plugins.runpopup.RunConfigurationUseTracker.runConfigurationUseTracker;
+
+
+/**
+ * Launches the run configurations of a launch set with a bounded number of
+ * concurrent launches, one after the other if they build the same modules.
+ * All state is confined to the EDT.
+ *
+ * @author Raffael Herzog
+ */
+final class LaunchSetRunner implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(LaunchSetRunner.class);
+
+    private static final long SCHEDULE_TIMEOUT_SECONDS = 30;
+
+    private final Project project;
+    private final String name;
+    private final int concurrency;
+    private final Deque<Deque<Launch>> chains = new ArrayDeque<>();
+    private final Map<String, Deque<Launch>> active = new LinkedHashMap<>();
+    private final Set<String> scheduled = new HashSet<>();
+    private final int total;
+    private int done = 0;
+    private int failed = 0;
+
+    private LaunchSetRunner(Project project, String name, int concurrency, List<Launch> launches) {
+        this.project = project;
+        this.name = name;
+        this.concurrency = concurrency;
+        this.total = launches.size();
+        Map<Set<Module>, Deque<Launch>> byModules = new LinkedHashMap<>();
+        for (Launch launch : launches) {
+            Set<Module> modules = BeforeLaunchBuild.modules(launch.settings);
+            if (modules.isEmpty()) {
+                // nothing to share, launch independently
+                chains.add(new ArrayDeque<>(List.of(launch)));
+            }
+            else {
+                byModules.computeIfAbsent(modules, k -> new ArrayDeque<>()).add(launch);
+            }
+        }
+        chains.addAll(byModules.values());
+    }
+
+    /**
+     * Launch the given launch set. Must be called on the EDT.
+     */
+    static void launch(Project project, RunConfigurationUseTracker.LaunchSet launchSet) {
+        var tracker = runConfigurationUseTracker(project);
+        Map<String, RunnerAndConfigurationSettings> settingsById = new LinkedHashMap<>();
+        for (RunnerAndConfigurationSettings settings : RunManager.getInstance(project).getAllSettings()) {
+            settingsById.put(settings.getUniqueID(), settings);
+        }
+        List<Launch> launches = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String confId : launchSet.confIds) {
+            var settings = settingsById.get(confId);
+            if (settings == null || !seen.add(confId)) {
+                continue;
+            }
+            var executor = IdeaExecutors.findExecutor(settings, tracker.getLastRunExecutorId(confId));
+            if (executor != null) {
+                launches.add(new Launch(settings, executor));
+            }
+        }
+        if (launches.isEmpty()) {
+            StatusBar.Info.set("Launch set " + launchSet.name + ": nothing to launch", project);
+            return;
+        }
+        var runner = new LaunchSetRunner(project, launchSet.name, tracker.getLaunchSetConcurrency(), launches);
+        Disposer.register(tracker, runner);
+        project.getMessageBus().connect(runner).subscribe(ExecutionManager.EXECUTION_TOPIC, runner.new Listener());
+        runner.launchNext();
+    }
+
+    private void launchNext() {
+        while (active.size() < concurrency && !chains.isEmpty()) {
+            Deque<Launch> chain = chains.poll();
+            start(chain);
+        }
+        if (active.isEmpty()) {
+            StatusBar.Info.set("Launch set " + name + ": " + (total - failed) + " of " + total + " launched", project);
+            Disposer.dispose(this);
+        }
+        else {
+            StatusBar.Info.set("Launch set " + name + ": " + done + " of " + total + " launched", project);
+        }
+    }
+
+    private void start(Deque<Launch> chain) {
+        Launch launch = chain.peek();
+        if (launch == null) {
+            return;
+        }
+        String confId = launch.settings.getUniqueID();
+        active.put(confId, chain);
+        scheduled.remove(confId);
+        runConfigurationUseTracker(project).touchRunConfiguration(confId, launch.executor.getId());
+        try {
+            ExecutionUtil.runConfiguration(launch.settings, launch.executor);
+        }
+        catch (ProcessCanceledException e) {
+            throw e;
+        }
+        catch (RuntimeException e) {
+            LOG.warn("Error launching " + launch.settings.getName() + " of launch set " + name, e);
+            finished(confId, false);
+            return;
+        }
+        AppExecutorUtil.getAppScheduledExecutorService().schedule(
+                () -> ApplicationManager.getApplication().invokeLater(() -> {
+                    if (active.get(confId) == chain && chain.peek() == launch && !scheduled.contains(confId)) {
+                        finished(confId, false);
+                    }
+                }),
+                SCHEDULE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void finished(String confId, boolean started) {
+        Deque<Launch> chain = active.remove(confId);
+        if (chain == null) {
+            return;
+        }
+        scheduled.remove(confId);
+        chain.poll();
+        done++;
+        if (!started) {
+            failed++;
+        }
+        if (!chain.isEmpty()) {
+            // the before-run tasks are done now, continue this chain right away
+            start(chain);
+        }
+        launchNext();
+    }
+
+    @Override
+    public void dispose() {
+        chains.clear();
+        active.clear();
+        scheduled.clear();
+    }
+
+    private static final class Launch {
+        private final RunnerAndConfigurationSettings settings;
+        private final Executor executor;
+
+        private Launch(RunnerAndConfigurationSettings settings, Executor executor) {
+            this.settings = settings;
+            this.executor = executor;
+        }
+    }
+
+    private final class Listener implements ExecutionListener {
+        @Override
+        public void processStartScheduled(@NotNull String executorId, @NotNull ExecutionEnvironment env) {
+            var settings = env.getRunnerAndConfigurationSettings();
+            if (settings != null) {
+                String confId = settings.getUniqueID();
+                ApplicationManager.getApplication().invokeLater(() -> {
+                    if (active.containsKey(confId)) {
+                        scheduled.add(confId);
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void processStarted(@NotNull String executorId, @NotNull ExecutionEnvironment env, @NotNull ProcessHandler handler) {
+            finishedLater(env, true);
+        }
+
+        @Override
+        public void processNotStarted(@NotNull String executorId, @NotNull ExecutionEnvironment env) {
+            finishedLater(env, false);
+        }
+
+        private void finishedLater(ExecutionEnvironment env, boolean started) {
+            var settings = env.getRunnerAndConfigurationSettings();
+            if (settings != null) {
+                String confId = settings.getUniqueID();
+                ApplicationManager.getApplication().invokeLater(() -> finished(confId, started));
+            }
+        }
+    }
+}
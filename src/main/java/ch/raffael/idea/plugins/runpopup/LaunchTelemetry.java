@@ -0,0 +1,305 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.intellij.execution.ExecutionListener;
+import com.intellij.execution.RunManager;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * Launch and run statistics per run configuration and executor: the time
+ * until the process has been started, the run duration and the exit code.
+ *
+ * @author Raffael Herzog
+ */
+@Service(Service.Level.PROJECT)
+final class LaunchTelemetry {
+
+    static final int HISTORY_SIZE = 32;
+
+    private final Project project;
+    private final Map<RunConfExecutorKey, History> histories = new ConcurrentHashMap<>();
+    private final Map<Long, Long> scheduled = new ConcurrentHashMap<>();
+    private final Map<ProcessHandler, Long> started = new ConcurrentHashMap<>();
+
+    LaunchTelemetry(Project project) {
+        this.project = project;
+    }
+
+    @NotNull
+    static LaunchTelemetry launchTelemetry(Project project) {
+        return Objects.requireNonNull(project.getService(LaunchTelemetry.class),
+                "project.getService(LaunchTelemetry.class)");
+    }
+
+    /**
+     * Summary of the launches of the given run configuration with any
+     * executor, {@code null} if it hasn't been launched yet.
+     */
+    @Nullable
+    Summary summary(String confId) {
+        List<History> matching = new ArrayList<>();
+        histories.forEach((k, h) -> {
+            if (k.confId.equals(confId)) {
+                matching.add(h);
+            }
+        });
+        return matching.isEmpty() ? null : Summary.of(confId, name(confId), matching);
+    }
+
+    /**
+     * The summaries of the run configurations that take longest to start,
+     * slowest first.
+     */
+    @NotNull
+    List<Summary> slowestToLaunch(int limit) {
+        Map<String, List<History>> byConf = new HashMap<>();
+        histories.forEach((k, h) -> byConf.computeIfAbsent(k.confId, c -> new ArrayList<>()).add(h));
+        List<Summary> summaries = new ArrayList<>();
+        byConf.forEach((confId, h) -> {
+            Summary summary = Summary.of(confId, name(confId), h);
+            if (summary.launches > 0) {
+                summaries.add(summary);
+            }
+        });
+        summaries.sort(Comparator.comparingLong((Summary s) -> s.medianStartMillis).reversed());
+        return summaries.subList(0, Math.min(limit, summaries.size()));
+    }
+
+    void forget(String confId) {
+        histories.keySet().removeIf(k -> k.confId.equals(confId));
+    }
+
+    /**
+     * Move the histories of a run configuration whose ID changed, e.g.
+     * because it has been renamed.
+     */
+    void rename(String oldConfId, String newConfId) {
+        for (RunConfExecutorKey key : List.copyOf(histories.keySet())) {
+            if (key.confId.equals(oldConfId)) {
+                History history = histories.remove(key);
+                if (history != null) {
+                    histories.putIfAbsent(new RunConfExecutorKey(newConfId, key.executorId), history);
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private String name(String confId) {
+        var settings = project.isDisposed() ? null : RunManager.getInstance(project).getConfigurationById(confId);
+        return settings == null ? confId : settings.getName();
+    }
+
+    private History history(RunnerAndConfigurationSettings settings, String executorId) {
+        return histories.computeIfAbsent(new RunConfExecutorKey(settings.getUniqueID(), executorId),
+                k -> new History());
+    }
+
+    private void processStartScheduled(ExecutionEnvironment env) {
+        scheduled.put(env.getExecutionId(), System.nanoTime());
+    }
+
+    private void processStarted(String executorId, ExecutionEnvironment env, ProcessHandler handler) {
+        long now = System.nanoTime();
+        started.put(handler, now);
+        Long scheduledAt = scheduled.remove(env.getExecutionId());
+        var settings = env.getRunnerAndConfigurationSettings();
+        if (scheduledAt != null && settings != null) {
+            history(settings, executorId).started((now - scheduledAt) / 1_000_000);
+        }
+    }
+
+    private void processNotStarted(ExecutionEnvironment env) {
+        scheduled.remove(env.getExecutionId());
+    }
+
+    private void processTerminated(String executorId, ExecutionEnvironment env, ProcessHandler handler, int exitCode) {
+        Long startedAt = started.remove(handler);
+        var settings = env.getRunnerAndConfigurationSettings();
+        if (startedAt != null && settings != null) {
+            history(settings, executorId).terminated((System.nanoTime() - startedAt) / 1_000_000, exitCode);
+        }
+    }
+
+    static String formatDuration(long millis) {
+        if (millis < 1_000) {
+            return String.format("%.1f s", millis / 1_000.0);
+        }
+        else if (millis < 60_000) {
+            return (millis + 500) / 1_000 + " s";
+        }
+        else {
+            long seconds = (millis + 500) / 1_000;
+            return seconds / 60 + " min " + seconds % 60 + " s";
+        }
+    }
+
+    /**
+     * Ring buffers of the last launches and runs.
+     */
+    private static final class History {
+        private final long[] startMillis = new long[HISTORY_SIZE];
+        private int starts = 0;
+        private final long[] runMillis = new long[HISTORY_SIZE];
+        private final int[] exitCodes = new int[HISTORY_SIZE];
+        private int runs = 0;
+
+        private synchronized void started(long millis) {
+            startMillis[starts++ % HISTORY_SIZE] = millis;
+        }
+
+        private synchronized void terminated(long millis, int exitCode) {
+            runMillis[runs % HISTORY_SIZE] = millis;
+            exitCodes[runs % HISTORY_SIZE] = exitCode;
+            runs++;
+        }
+    }
+
+    static final class Summary {
+        private final String confId;
+        private final String name;
+        private final int launches;
+        private final long medianStartMillis;
+        private final long maxStartMillis;
+        private final int runs;
+        private final long medianRunMillis;
+        private final int failures;
+
+        private Summary(String confId, String name, int launches, long medianStartMillis, long maxStartMillis,
+                        int runs, long medianRunMillis, int failures) {
+            this.confId = confId;
+            this.name = name;
+            this.launches = launches;
+            this.medianStartMillis = medianStartMillis;
+            this.maxStartMillis = maxStartMillis;
+            this.runs = runs;
+            this.medianRunMillis = medianRunMillis;
+            this.failures = failures;
+        }
+
+        private static Summary of(String confId, String name, List<History> histories) {
+            long[] startMillis = new long[0];
+            long[] runMillis = new long[0];
+            int failures = 0;
+            for (History history : histories) {
+                synchronized (history) {
+                    startMillis = append(startMillis, history.startMillis, Math.min(history.starts, HISTORY_SIZE));
+                    int runs = Math.min(history.runs, HISTORY_SIZE);
+                    runMillis = append(runMillis, history.runMillis, runs);
+                    for (int i = 0; i < runs; i++) {
+                        if (history.exitCodes[i] != 0) {
+                            failures++;
+                        }
+                    }
+                }
+            }
+            Arrays.sort(startMillis);
+            Arrays.sort(runMillis);
+            return new Summary(confId, name, startMillis.length, median(startMillis),
+                    startMillis.length == 0 ? 0 : startMillis[startMillis.length - 1],
+                    runMillis.length, median(runMillis), failures);
+        }
+
+        private static long[] append(long[] to, long[] from, int count) {
+            long[] result = Arrays.copyOf(to, to.length + count);
+            System.arraycopy(from, 0, result, to.length, count);
+            return result;
+        }
+
+        private static long median(long[] sorted) {
+            return sorted.length == 0 ? 0 : sorted[sorted.length / 2];
+        }
+
+        String getConfId() {
+            return confId;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getLaunches() {
+            return launches;
+        }
+
+        long getMedianStartMillis() {
+            return medianStartMillis;
+        }
+
+        long getMaxStartMillis() {
+            return maxStartMillis;
+        }
+
+        int getRuns() {
+            return runs;
+        }
+
+        long getMedianRunMillis() {
+            return medianRunMillis;
+        }
+
+        int getFailures() {
+            return failures;
+        }
+    }
+
+    public static class MyExecutionListener implements ExecutionListener {
+        @Override
+        public void processStartScheduled(@NotNull String executorId, @NotNull ExecutionEnvironment env) {
+            launchTelemetry(env.getProject()).processStartScheduled(env);
+        }
+
+        @Override
+        public void processStarted(@NotNull String executorId, @NotNull ExecutionEnvironment env, @NotNull ProcessHandler handler) {
+            launchTelemetry(env.getProject()).processStarted(executorId, env, handler);
+        }
+
+        @Override
+        public void processNotStarted(@NotNull String executorId, @NotNull ExecutionEnvironment env) {
+            launchTelemetry(env.getProject()).processNotStarted(env);
+        }
+
+        @Override
+        public void processTerminated(@NotNull String executorId, @NotNull ExecutionEnvironment env, @NotNull ProcessHandler handler, int exitCode) {
+            launchTelemetry(env.getProject()).processTerminated(executorId, env, handler, exitCode);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+import static ch.raffael.idea.plugins.runpopup.EnvironmentCache.environmentCache;
+
+
+/**
+ * Relaunch the last launched run configuration with the same executor,
+ * reusing its execution environment.
+ *
+ * @author Raffael Herzog
+ */
+public class RelaunchLastAction extends AnAction {
+
+    public RelaunchLastAction() {
+        super("Relaunch Last", "Relaunch the last launched run configuration", AllIcons.Actions.Rerun);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if ( project != null ) {
+            var environment = environmentCache(project).lastLaunched();
+            if ( environment != null ) {
+                EnvironmentCache.relaunch(environment);
+            }
+        }
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        var environment = project == null ? null : environmentCache(project).lastLaunched();
+        var settings = environment == null ? null : environment.getRunnerAndConfigurationSettings();
+        if ( settings == null ) {
+            e.getPresentation().setEnabledAndVisible(false);
+        }
+        else {
+            e.getPresentation().setEnabledAndVisible(true);
+            e.getPresentation().setText("Relaunch " + settings.getName(), false);
+        }
+    }
+}
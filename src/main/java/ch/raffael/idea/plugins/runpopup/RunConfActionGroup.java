@@ -22,8 +22,11 @@
 
 package ch.raffael.idea.plugins.runpopup;
 
+import java.awt.Component;
+import java.awt.Graphics;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 
@@ -31,7 +34,9 @@ import javax.swing.Icon;
 
 import com.intellij.execution.Executor;
 import com.intellij.execution.RunnerAndConfigurationSettings;
-import com.intellij.execution.configurations.RuntimeConfigurationException;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.process.ProcessHandler;
 import com.intellij.execution.runners.ExecutionUtil;
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.actionSystem.ActionGroup;
@@ -40,13 +45,18 @@ import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.Separator;
 import com.intellij.openapi.actionSystem.ToggleAction;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.IconLoader;
-import com.intellij.ui.LayeredIcon;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import static ch.raffael.idea.plugins.runpopup.EnvironmentCache.environmentCache;
+import static ch.raffael.idea.plugins.runpopup.ExecutorIndex.executorIndex;
+import static ch.raffael.idea.plugins.runpopup.LaunchTelemetry.launchTelemetry;
+import static ch.raffael.idea.plugins.runpopup.RunConfIcons.runConfIcons;
+import static ch.raffael.idea.plugins.runpopup.RunPopupLatency.runPopupLatency;
 import static ch.raffael.idea.plugins.runpopup.RunConfigurationUseTracker.runConfigurationUseTracker;
+import static ch.raffael.idea.plugins.runpopup.RunConfigurationValidator.runConfigurationValidator;
 
 
 /**
@@ -56,20 +66,43 @@ import static ch.raffael.idea.plugins.runpopup.RunConfigurationUseTracker.runCon
  */
 class RunConfActionGroup extends ActionGroup {
 
+    private final Project project;
     private final RunnerAndConfigurationSettings runConfiguration;
+    private final boolean showProjectName;
+    @Nullable
+    private volatile Children children = null;
+    @Nullable
+    private volatile ItemIcon itemIcon = null;
 
-    RunConfActionGroup(RunnerAndConfigurationSettings runConfiguration) {
-        super(runConfiguration.getName(), null,
-                new CompoundIcon(runConfiguration.getType().getIcon(),
-                        Executor.EXECUTOR_EXTENSION_NAME.getExtensionList().get(0).getIcon()));
+    /**
+     * @param project The project of the run configuration, this may be
+     *                another project than the one of the action event when
+     *                showing the run configurations of all open projects.
+     * @param showProjectName Whether to show the project's name after the
+     *                        name of the run configuration.
+     */
+    RunConfActionGroup(Project project, RunnerAndConfigurationSettings runConfiguration, boolean showProjectName) {
+        super(runConfiguration.getName(), null, templateIcon(runConfiguration));
+        this.project = project;
         this.runConfiguration = runConfiguration;
+        this.showProjectName = showProjectName;
         getTemplatePresentation().setPopupGroup(true);
         getTemplatePresentation().setPerformGroup(true);
     }
 
+    @Nullable
+    private static Icon templateIcon(RunnerAndConfigurationSettings runConfiguration) {
+        var executor = executorIndex().defaultExecutor();
+        var confIcon = runConfiguration.getType().getIcon();
+        if ( executor == null ) {
+            return confIcon;
+        }
+        return runConfIcons().icon(confIcon, executor, false, false, false);
+    }
+
     @Override
     public void actionPerformed(AnActionEvent e) {
-        Project project = e.getProject();
+        Project project = project();
         if ( project != null ) {
             RunConfigurationUseTracker useTracker = runConfigurationUseTracker(project);
             Executor executor = findExecutor(useTracker.getLastRunExecutorId(runConfiguration.getUniqueID()));
@@ -87,39 +120,74 @@ class RunConfActionGroup extends ActionGroup {
 
     @Override
     public void update(AnActionEvent e) {
-        var project = e.getProject();
+        var project = project();
         if ( project != null ) {
+            var latency = runPopupLatency();
+            long start = RunPopupLatency.start();
             var useTracker = runConfigurationUseTracker(project);
-            var executor = findExecutor(useTracker.getLastRunExecutorId(runConfiguration.getUniqueID()));
+            var executor = displayExecutor(useTracker.getLastRunExecutorId(runConfiguration.getUniqueID()));
+            long lap = latency.record(RunPopupLatency.Timer.ITEM_UPDATE_EXECUTOR, start);
             if ( executor == null ) {
                 e.getPresentation().setVisible(false);
                 e.getPresentation().setEnabled(false);
             }
             else {
-                var confIcon = runConfiguration.getConfiguration().getIcon();
-                var executorIcon = executor.getIcon();
-                try {
-                    runConfiguration.checkSettings();
-                }
-                catch ( RuntimeConfigurationException e1 ) {
-                    confIcon = (LayeredIcon.create(confIcon,
-                            AllIcons.RunConfigurations.InvalidConfigurationLayer));
-                }
-                if ( useTracker.isRunning(runConfiguration.getUniqueID()) ) {
-                    executorIcon = ExecutionUtil.getLiveIndicator(executorIcon);
-                }
-                e.getPresentation().setIcon(
-                        confIcon == null ? executorIcon : new CompoundIcon(confIcon, executorIcon));
-                if ( runConfiguration.isTemporary() ) {
-                    e.getPresentation().setIcon(getTemporaryIcon(e.getPresentation().getIcon()));
-                }
-                e.getPresentation().setText(runConfiguration.getName(), false);
+                e.getPresentation().setIcon(itemIcon(useTracker, runConfigurationValidator(project),
+                        runConfiguration.getConfiguration().getIcon(), executor));
+                latency.record(RunPopupLatency.Timer.ITEM_UPDATE_ICON, lap);
+                e.getPresentation().setText(showProjectName
+                                            ? runConfiguration.getName() + "  [" + project.getName() + "]"
+                                            : runConfiguration.getName(), false);
             }
+            latency.record(RunPopupLatency.Timer.ITEM_UPDATE, start);
+        }
+    }
+
+    @NotNull
+    private Icon itemIcon(RunConfigurationUseTracker useTracker, RunConfigurationValidator validator,
+                          @Nullable Icon confIcon, Executor executor) {
+        var icon = itemIcon;
+        if ( icon == null || !icon.matches(useTracker, validator, confIcon, executor, runConfiguration.isTemporary()) ) {
+            icon = new ItemIcon(useTracker, validator, confIcon, executor, runConfiguration.isTemporary());
+            itemIcon = icon;
+        }
+        else {
+            icon.refresh();
+        }
+        return icon;
+    }
+
+    /**
+     * Look up again whether the run configuration is running, valid and
+     * which executor it will be run with, for the next time the item is
+     * painted.
+     */
+    void refreshIcon() {
+        var icon = itemIcon;
+        if ( icon != null ) {
+            icon.refresh();
+        }
+    }
+
+    /**
+     * Stop the process like the Stop action of the Run tool window does:
+     * detach if that's the default for the process, destroy it otherwise.
+     */
+    private static void stop(ProcessHandler handler) {
+        if ( handler.isProcessTerminated() || handler.isProcessTerminating() ) {
+            return;
+        }
+        if ( handler.detachIsDefault() ) {
+            handler.detachProcess();
+        }
+        else {
+            handler.destroyProcess();
         }
     }
 
-    private static Icon getTemporaryIcon(Icon icon) {
-        return IconLoader.getTransparentIcon(icon, 0.3f);
+    @Nullable
+    private Project project() {
+        return project.isDisposed() ? null : project;
     }
 
     @Nullable
@@ -127,39 +195,52 @@ class RunConfActionGroup extends ActionGroup {
         return IdeaExecutors.findExecutor(runConfiguration, id);
     }
 
+    @Nullable
+    private Executor displayExecutor(@Nullable String id) {
+        return IdeaExecutors.displayExecutor(runConfiguration, id);
+    }
+
     private boolean canRunWith(String executorId) {
         return IdeaExecutors.canRunWith(runConfiguration, executorId);
     }
 
+    RunnerAndConfigurationSettings getRunConfiguration() {
+        return runConfiguration;
+    }
+
+    /**
+     * The project of the run configuration, {@code null} if it has been
+     * closed.
+     */
+    @Nullable
+    Project getProject() {
+        return project();
+    }
+
     @NotNull
     @Override
     public AnAction[] getChildren(@Nullable AnActionEvent e) {
-        var executors = Executor.EXECUTOR_EXTENSION_NAME.getExtensionList();
+        var executors = executorIndex().executors();
+        var children = this.children;
+        if ( children == null || children.executors != executors ) {
+            children = new Children(executors, createChildren(executors));
+            this.children = children;
+        }
+        return children.actions;
+    }
+
+    @NotNull
+    private AnAction[] createChildren(List<Executor> executors) {
         List<AnAction> children = new ArrayList<>();
+        children.add(new LaunchInfoAction());
         for ( Executor executor : executors ) {
-            children.add(new AnAction(executor.getStartActionText(), null, executor.getIcon()) {
-                @Override
-                public void actionPerformed(AnActionEvent e) {
-                    Project project = e.getProject();
-                    if (project != null) {
-                        RunConfigurationUseTracker useTracker = runConfigurationUseTracker(project);
-                        useTracker.touchRunConfiguration(runConfiguration.getUniqueID(), executor.getId());
-                        ExecutionUtil.runConfiguration(runConfiguration, executor);
-                    }
-                }
-
-                @Override
-                public @NotNull ActionUpdateThread getActionUpdateThread() {
-                    return ActionUpdateThread.BGT;
-                }
-
-                @Override
-                public void update(AnActionEvent e) {
-                    e.getPresentation().setEnabled(canRunWith(executor.getId()));
-                }
-            });
+            children.add(new ExecutorAction(executor));
         }
         children.add(new Separator());
+        children.add(new StopAction(false));
+        children.add(new RestartAction());
+        children.add(new StopAction(true));
+        children.add(new Separator());
         children.add(new FlagAction("Favorite",
                 t -> t.isFavorite(runConfiguration.getUniqueID()),
                 (t, s) -> t.setFavorite(runConfiguration.getUniqueID(), s)));
@@ -169,7 +250,255 @@ class RunConfActionGroup extends ActionGroup {
         return children.toArray(AnAction.EMPTY_ARRAY);
     }
 
-    private static class FlagAction extends ToggleAction {
+    /**
+     * The sub-actions are created once per item and reused as long as the
+     * registered executors don't change.
+     */
+    private static final class Children {
+        private final List<Executor> executors;
+        private final AnAction[] actions;
+
+        private Children(List<Executor> executors, AnAction[] actions) {
+            this.executors = executors;
+            this.actions = actions;
+        }
+    }
+
+    private final class ExecutorAction extends AnAction {
+        private final Executor executor;
+
+        private ExecutorAction(Executor executor) {
+            super(executor.getStartActionText(), null, executor.getIcon());
+            this.executor = executor;
+        }
+
+        @Override
+        public void actionPerformed(AnActionEvent e) {
+            Project project = project();
+            if (project != null) {
+                RunConfigurationUseTracker useTracker = runConfigurationUseTracker(project);
+                useTracker.touchRunConfiguration(runConfiguration.getUniqueID(), executor.getId());
+                ExecutionUtil.runConfiguration(runConfiguration, executor);
+            }
+        }
+
+        @Override
+        public @NotNull ActionUpdateThread getActionUpdateThread() {
+            return ActionUpdateThread.BGT;
+        }
+
+        @Override
+        public void update(AnActionEvent e) {
+            e.getPresentation().setEnabled(canRunWith(executor.getId()));
+        }
+    }
+
+    /**
+     * Shows how long the run configuration typically takes to start. Only
+     * visible if it has been launched before.
+     */
+    private final class LaunchInfoAction extends AnAction {
+        @Override
+        public void actionPerformed(AnActionEvent e) {
+        }
+
+        @Override
+        public @NotNull ActionUpdateThread getActionUpdateThread() {
+            return ActionUpdateThread.BGT;
+        }
+
+        @Override
+        public void update(AnActionEvent e) {
+            Project project = project();
+            var summary = project == null ? null : launchTelemetry(project).summary(runConfiguration.getUniqueID());
+            if ( summary == null || summary.getLaunches() == 0 ) {
+                e.getPresentation().setEnabledAndVisible(false);
+                return;
+            }
+            String text = "Typically starts in " + LaunchTelemetry.formatDuration(summary.getMedianStartMillis());
+            if ( summary.getRuns() > 0 ) {
+                text += ", runs " + LaunchTelemetry.formatDuration(summary.getMedianRunMillis());
+            }
+            if ( summary.getFailures() > 0 ) {
+                text += ", " + summary.getFailures() + " of " + summary.getRuns() + " failed";
+            }
+            e.getPresentation().setText(text, false);
+            e.getPresentation().setVisible(true);
+            e.getPresentation().setEnabled(false);
+        }
+    }
+
+    /**
+     * Stops the most recently started process of the run configuration, or
+     * all of them. Only visible while running.
+     */
+    private final class StopAction extends AnAction {
+        private final boolean all;
+
+        private StopAction(boolean all) {
+            super(all ? "Stop All Instances" : "Stop", null, AllIcons.Actions.Suspend);
+            this.all = all;
+        }
+
+        @Override
+        public void actionPerformed(AnActionEvent e) {
+            Project project = project();
+            if ( project != null ) {
+                var processes = runConfigurationUseTracker(project).getRunningProcesses(runConfiguration.getUniqueID());
+                if ( all ) {
+                    processes.forEach(p -> stop(p.getHandler()));
+                }
+                else if ( !processes.isEmpty() ) {
+                    stop(processes.get(processes.size() - 1).getHandler());
+                }
+            }
+        }
+
+        @Override
+        public @NotNull ActionUpdateThread getActionUpdateThread() {
+            return ActionUpdateThread.BGT;
+        }
+
+        @Override
+        public void update(AnActionEvent e) {
+            Project project = project();
+            int running = project == null
+                          ? 0
+                          : runConfigurationUseTracker(project).getRunningProcesses(runConfiguration.getUniqueID()).size();
+            e.getPresentation().setVisible(all ? running > 1 : running > 0);
+        }
+    }
+
+    /**
+     * Restarts the most recently started process of the run configuration.
+     * If the run configuration hasn't changed since, its execution
+     * environment is reused. Otherwise, the process is stopped and the run
+     * configuration launched again with the same executor once it has
+     * terminated. Only visible while running.
+     */
+    private final class RestartAction extends AnAction {
+        private RestartAction() {
+            super("Restart", null, AllIcons.Actions.Restart);
+        }
+
+        @Override
+        public void actionPerformed(AnActionEvent e) {
+            Project project = project();
+            if ( project == null ) {
+                return;
+            }
+            var useTracker = runConfigurationUseTracker(project);
+            var processes = useTracker.getRunningProcesses(runConfiguration.getUniqueID());
+            if ( processes.isEmpty() ) {
+                return;
+            }
+            var process = processes.get(processes.size() - 1);
+            var cached = environmentCache(project).environment(runConfiguration.getUniqueID(), process.getExecutorId());
+            if ( cached == process.getEnvironment() ) {
+                EnvironmentCache.relaunch(cached);
+                return;
+            }
+            var executor = executorIndex().byId(process.getExecutorId());
+            if ( executor == null ) {
+                return;
+            }
+            AtomicBoolean launched = new AtomicBoolean();
+            Runnable launch = () -> {
+                if ( !project.isDisposed() && launched.compareAndSet(false, true) ) {
+                    useTracker.touchRunConfiguration(runConfiguration.getUniqueID(), executor.getId());
+                    ExecutionUtil.runConfiguration(runConfiguration, executor);
+                }
+            };
+            ProcessHandler handler = process.getHandler();
+            handler.addProcessListener(new ProcessAdapter() {
+                @Override
+                public void processTerminated(@NotNull ProcessEvent event) {
+                    ApplicationManager.getApplication().invokeLater(launch);
+                }
+            });
+            if ( handler.isProcessTerminated() ) {
+                ApplicationManager.getApplication().invokeLater(launch);
+            }
+            else {
+                stop(handler);
+            }
+        }
+
+        @Override
+        public @NotNull ActionUpdateThread getActionUpdateThread() {
+            return ActionUpdateThread.BGT;
+        }
+
+        @Override
+        public void update(AnActionEvent e) {
+            Project project = project();
+            e.getPresentation().setVisible(project != null
+                    && runConfigurationUseTracker(project).isRunning(runConfiguration.getUniqueID()));
+        }
+    }
+
+    /**
+     * The icon of the item. Whether the run configuration is running, valid
+     * and which executor it will be run with is looked up on each update and
+     * on {@link #refresh()}, painting uses the result. The validation and
+     * the resolution of the default executor happen in the background, so
+     * the row just needs to be refreshed and repainted when they're done, or
+     * when a process starts or terminates.
+     */
+    private final class ItemIcon implements Icon {
+        private final RunConfigurationUseTracker useTracker;
+        private final RunConfigurationValidator validator;
+        @Nullable
+        private final Icon confIcon;
+        private final Executor executor;
+        private final boolean temporary;
+        private volatile Icon current;
+
+        private ItemIcon(RunConfigurationUseTracker useTracker, RunConfigurationValidator validator,
+                         @Nullable Icon confIcon, Executor executor, boolean temporary) {
+            this.useTracker = useTracker;
+            this.validator = validator;
+            this.confIcon = confIcon;
+            this.executor = executor;
+            this.temporary = temporary;
+            this.current = resolve();
+        }
+
+        private boolean matches(RunConfigurationUseTracker useTracker, RunConfigurationValidator validator,
+                                @Nullable Icon confIcon, Executor executor, boolean temporary) {
+            return this.useTracker == useTracker && this.validator == validator && this.confIcon == confIcon
+                    && this.executor == executor && this.temporary == temporary;
+        }
+
+        private void refresh() {
+            current = resolve();
+        }
+
+        private Icon resolve() {
+            String confId = runConfiguration.getUniqueID();
+            Executor executor = displayExecutor(useTracker.getLastRunExecutorId(confId));
+            return runConfIcons().icon(confIcon, executor == null ? this.executor : executor,
+                    validator.validity(runConfiguration) == RunConfigurationValidator.Validity.INVALID,
+                    useTracker.isRunning(confId), temporary);
+        }
+
+        @Override
+        public void paintIcon(Component c, Graphics g, int x, int y) {
+            current.paintIcon(c, g, x, y);
+        }
+
+        @Override
+        public int getIconWidth() {
+            return current.getIconWidth();
+        }
+
+        @Override
+        public int getIconHeight() {
+            return current.getIconHeight();
+        }
+    }
+
+    private class FlagAction extends ToggleAction {
         private final Function<? super RunConfigurationUseTracker, Boolean> getter;
         private final BiConsumer<? super RunConfigurationUseTracker, Boolean> setter;
 
@@ -188,7 +517,7 @@ class RunConfActionGroup extends ActionGroup {
 
         @Override
         public boolean isSelected(AnActionEvent e) {
-            Project project = e.getProject();
+            Project project = project();
             //noinspection SimplifiableIfStatement
             if ( project == null ) {
                 return false;
@@ -197,7 +526,7 @@ class RunConfActionGroup extends ActionGroup {
         }
         @Override
         public void setSelected(AnActionEvent e, boolean state) {
-            Project project = e.getProject();
+            Project project = project();
             if ( project != null ) {
                 setter.accept(runConfigurationUseTracker(project), state);
             }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.intellij.execution.RunManager;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+
+/**
+ * Pool of the popup item actions, so they're created once per run
+ * configuration instead of on each popup opening.
+ *
+ * @author Raffael Herzog
+ */
+@Service(Service.Level.PROJECT)
+final class RunConfActionPool {
+
+    private final Project project;
+    private final Map<String, RunConfActionGroup> actions = new ConcurrentHashMap<>();
+    private final Map<String, RunConfActionGroup> lastUsedActions = new ConcurrentHashMap<>();
+    private final Map<String, RunConfActionGroup> actionsWithProjectName = new ConcurrentHashMap<>();
+
+    RunConfActionPool(Project project) {
+        this.project = project;
+    }
+
+    @NotNull
+    static RunConfActionPool runConfActionPool(Project project) {
+        return Objects.requireNonNull(project.getService(RunConfActionPool.class),
+                "project.getService(RunConfActionPool.class)");
+    }
+
+    /**
+     * Get the action for the given run configuration. The action is reused
+     * as long as the RunManager returns the same settings instance for it.
+     */
+    @NotNull
+    RunConfActionGroup action(RunnerAndConfigurationSettings runConfiguration) {
+        return action(actions, runConfiguration, false);
+    }
+
+    /**
+     * Like {@link #action(RunnerAndConfigurationSettings)}, but for the last
+     * used entry on top of the popup. The run configuration is also listed
+     * in its section, each row needs its own action, otherwise they'd share
+     * their presentation.
+     */
+    @NotNull
+    RunConfActionGroup lastUsedAction(RunnerAndConfigurationSettings runConfiguration) {
+        return action(lastUsedActions, runConfiguration, false);
+    }
+
+    /**
+     * Like {@link #action(RunnerAndConfigurationSettings)}, but the action
+     * shows the project's name, for the popup showing all open projects.
+     */
+    @NotNull
+    RunConfActionGroup actionWithProjectName(RunnerAndConfigurationSettings runConfiguration) {
+        return action(actionsWithProjectName, runConfiguration, true);
+    }
+
+    @NotNull
+    private RunConfActionGroup action(Map<String, RunConfActionGroup> actions,
+                                      RunnerAndConfigurationSettings runConfiguration, boolean showProjectName) {
+        return actions.compute(runConfiguration.getUniqueID(),
+                (k, v) -> v != null && v.getRunConfiguration() == runConfiguration
+                          ? v
+                          : new RunConfActionGroup(project, runConfiguration, showProjectName));
+    }
+
+    void forget(String confId) {
+        actions.remove(confId);
+        lastUsedActions.remove(confId);
+        actionsWithProjectName.remove(confId);
+    }
+
+    void clear() {
+        actions.clear();
+        lastUsedActions.clear();
+        actionsWithProjectName.clear();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.swing.Icon;
+
+import com.intellij.execution.Executor;
+import com.intellij.execution.runners.ExecutionUtil;
+import com.intellij.icons.AllIcons;
+import com.intellij.ide.ui.LafManager;
+import com.intellij.ide.ui.LafManagerListener;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.util.IconLoader;
+import com.intellij.ui.LayeredIcon;
+import com.intellij.ui.scale.JBUIScale;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * A bounded cache of the composite icons of the popup items, cleared when
+ * the look and feel changes.
+ *
+ * @author Raffael Herzog
+ */
+@Service(Service.Level.APP)
+final class RunConfIcons {
+
+    private static final int MAX_ENTRIES = 256;
+
+    private final Map<Key, Icon> icons = new LinkedHashMap<>(64, .75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Icon> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    @NotNull
+    static RunConfIcons runConfIcons() {
+        return Objects.requireNonNull(ApplicationManager.getApplication().getService(RunConfIcons.class),
+                "getApplication().getService(RunConfIcons.class)");
+    }
+
+    @NotNull
+    Icon icon(@Nullable Icon confIcon, Executor executor, boolean invalid, boolean running, boolean temporary) {
+        Key key = new Key(confIcon, executor.getIcon(), invalid, running, temporary, JBUIScale.scale(1f));
+        synchronized (icons) {
+            Icon icon = icons.get(key);
+            if (icon != null) {
+                return icon;
+            }
+        }
+        Icon icon = createIcon(key);
+        synchronized (icons) {
+            return icons.computeIfAbsent(key, k -> icon);
+        }
+    }
+
+    @NotNull
+    private static Icon createIcon(Key key) {
+        Icon confIcon = key.confIcon;
+        Icon executorIcon = key.executorIcon;
+        if ( confIcon != null && key.invalid ) {
+            confIcon = LayeredIcon.create(confIcon, AllIcons.RunConfigurations.InvalidConfigurationLayer);
+        }
+        if ( key.running ) {
+            executorIcon = ExecutionUtil.getLiveIndicator(executorIcon);
+        }
+        Icon icon = confIcon == null ? executorIcon : new CompoundIcon(confIcon, executorIcon);
+        if ( key.temporary ) {
+            icon = IconLoader.getTransparentIcon(icon, 0.3f);
+        }
+        return icon;
+    }
+
+    void clear() {
+        synchronized (icons) {
+            icons.clear();
+        }
+    }
+
+    private static final class Key {
+        @Nullable
+        private final Icon confIcon;
+        private final Icon executorIcon;
+        private final boolean invalid;
+        private final boolean running;
+        private final boolean temporary;
+        private final float scale;
+
+        private Key(@Nullable Icon confIcon, Icon executorIcon,
+                    boolean invalid, boolean running, boolean temporary, float scale) {
+            this.confIcon = confIcon;
+            this.executorIcon = executorIcon;
+            this.invalid = invalid;
+            this.running = running;
+            this.temporary = temporary;
+            this.scale = scale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( o == null || getClass() != o.getClass() ) {
+                return false;
+            }
+            Key that = (Key) o;
+            return invalid == that.invalid
+                    && running == that.running
+                    && temporary == that.temporary
+                    && Float.compare(that.scale, scale) == 0
+                    && Objects.equals(confIcon, that.confIcon)
+                    && Objects.equals(executorIcon, that.executorIcon);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(confIcon, executorIcon, invalid, running, temporary, scale);
+        }
+    }
+
+    public static class MyLafManagerListener implements LafManagerListener {
+        @Override
+        public void lookAndFeelChanged(@NotNull LafManager source) {
+            runConfIcons().clear();
+        }
+    }
+}
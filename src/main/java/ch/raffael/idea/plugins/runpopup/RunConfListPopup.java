@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+import javax.swing.JList;
+import javax.swing.ListModel;
+import javax.swing.SwingUtilities;
+
+import com.intellij.openapi.actionSystem.ActionGroup;
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.project.Project;
+import com.intellij.ui.popup.PopupFactoryImpl;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static ch.raffael.idea.plugins.runpopup.RunPopupSnapshot.runPopupSnapshot;
+
+
+/**
+ * An action group popup whose speed search matches and selects run
+ * configurations using the {@link RunConfSearchIndex} of their project.
+ *
+ * @author Raffael Herzog
+ */
+final class RunConfListPopup extends PopupFactoryImpl.ActionGroupPopup {
+
+    /**
+     * The score of items the search index doesn't know.
+     */
+    private static final int UNKNOWN = Integer.MAX_VALUE;
+
+    @Nullable
+    private String lastFilter = null;
+    private RunConfSearchIndex.Pattern pattern = RunConfSearchIndex.pattern(null);
+    private boolean userInput = false;
+    private int shownSelection = -1;
+
+    RunConfListPopup(@Nullable String title, @NotNull ActionGroup actionGroup, @NotNull DataContext dataContext) {
+        super(title, actionGroup, dataContext, false, false, false, false, null, -1, null, null);
+        getSpeedSearch().addChangeListener(evt -> SwingUtilities.invokeLater(this::selectBestMatch));
+        getList().addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                userInput = true;
+            }
+        });
+        getList().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                userInput = true;
+            }
+        });
+    }
+
+    /**
+     * Remember the selection after showing the popup, for
+     * {@link #isUntouched()}.
+     */
+    void shown() {
+        shownSelection = getList().getSelectedIndex();
+    }
+
+    /**
+     * Whether the popup is still showing and the user hasn't interacted with
+     * it yet: no key or mouse button pressed, no speed search filter and
+     * the selection unchanged since {@link #shown()}. Only then it can be
+     * replaced by a refreshed one without the selection jumping under the
+     * user's hands.
+     */
+    boolean isUntouched() {
+        if ( isDisposed() || !isVisible() || userInput ) {
+            return false;
+        }
+        String filter = getSpeedSearch().getFilter();
+        return (filter == null || filter.isEmpty()) && getList().getSelectedIndex() == shownSelection;
+    }
+
+    @Override
+    public boolean shouldBeShowing(Object value) {
+        var pattern = pattern();
+        if ( pattern.isEmpty() ) {
+            return super.shouldBeShowing(value);
+        }
+        int score = score(value, pattern);
+        return score == UNKNOWN ? super.shouldBeShowing(value) : score != RunConfSearchIndex.NO_MATCH;
+    }
+
+    private void selectBestMatch() {
+        if ( isDisposed() ) {
+            return;
+        }
+        var pattern = pattern();
+        if ( pattern.isEmpty() ) {
+            return;
+        }
+        JList<?> list = getList();
+        ListModel<?> model = list.getModel();
+        int bestIndex = -1;
+        int bestScore = RunConfSearchIndex.NO_MATCH;
+        for ( int i = 0; i < model.getSize(); i++ ) {
+            int score = score(model.getElementAt(i), pattern);
+            if ( score != UNKNOWN && score > bestScore ) {
+                bestScore = score;
+                bestIndex = i;
+            }
+        }
+        if ( bestIndex >= 0 ) {
+            list.setSelectedIndex(bestIndex);
+            list.ensureIndexIsVisible(bestIndex);
+        }
+    }
+
+    private static int score(@Nullable Object item, RunConfSearchIndex.Pattern pattern) {
+        var action = RunPopupAction.runConfAction(item);
+        if ( action == null ) {
+            return UNKNOWN;
+        }
+        Project project = action.getProject();
+        var searchIndex = project == null ? null : runPopupSnapshot(project).currentSearchIndex();
+        String confId = action.getRunConfiguration().getUniqueID();
+        if ( searchIndex == null || !searchIndex.contains(confId) ) {
+            return UNKNOWN;
+        }
+        return searchIndex.score(confId, pattern);
+    }
+
+    /**
+     * The pattern of the current filter, only compiled again if the filter
+     * changed. Only called on the EDT, but maybe already while the super
+     * constructor builds the list.
+     */
+    @NotNull
+    private RunConfSearchIndex.Pattern pattern() {
+        var speedSearch = getSpeedSearch();
+        String filter = speedSearch == null ? null : speedSearch.getFilter();
+        if ( filter == null ) {
+            filter = "";
+        }
+        if ( !filter.equals(lastFilter) ) {
+            lastFilter = filter;
+            pattern = RunConfSearchIndex.pattern(filter);
+        }
+        return pattern;
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * A search index over the names, folder names and configuration type names
+ * of the run configurations, used to rank speed search matches.
+ *
+ * @author Raffael Herzog
+ */
+final class RunConfSearchIndex {
+
+    static final int NO_MATCH = Integer.MIN_VALUE;
+
+    private static final int PREFIX = 1000;
+    private static final int INITIALS = 800;
+    private static final int WORD_SUBSTRING = 600;
+    private static final int SUBSTRING = 400;
+    private static final int MAX_RECENCY_BONUS = 150;
+
+    private final Map<String, Entry> entries;
+
+    private RunConfSearchIndex(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    @NotNull
+    static RunConfSearchIndex build(Collection<? extends RunnerAndConfigurationSettings> runConfigurations,
+                                    RunConfigurationUseTracker tracker) {
+        return build(runConfigurations, tracker, null);
+    }
+
+    /**
+     * Build the index, reusing the precomputed strings of the previous index
+     * where they didn't change. Usually, only the recency changes between
+     * two builds, e.g. because a run configuration has been launched.
+     */
+    @NotNull
+    static RunConfSearchIndex build(Collection<? extends RunnerAndConfigurationSettings> runConfigurations,
+                                    RunConfigurationUseTracker tracker, @Nullable RunConfSearchIndex previous) {
+        Map<String, Integer> recencyRanks = new HashMap<>();
+        Iterator<String> byLastUse = tracker.lastUsedConfIds().iterator();
+        while (byLastUse.hasNext()) {
+            recencyRanks.putIfAbsent(byLastUse.next(), recencyRanks.size());
+        }
+        int ranked = Math.max(recencyRanks.size(), 1);
+        Map<String, Entry> entries = new HashMap<>();
+        for (RunnerAndConfigurationSettings conf : runConfigurations) {
+            Integer rank = recencyRanks.get(conf.getUniqueID());
+            Entry old = previous == null ? null : previous.entries.get(conf.getUniqueID());
+            entries.put(conf.getUniqueID(), new Entry(
+                    Field.of(conf.getName(), old == null ? null : old.name),
+                    Field.of(conf.getFolderName(), old == null ? null : old.folder),
+                    Field.of(conf.getType().getDisplayName(), old == null ? null : old.type),
+                    rank == null ? 0 : MAX_RECENCY_BONUS * (ranked - rank) / ranked));
+        }
+        return new RunConfSearchIndex(Map.copyOf(entries));
+    }
+
+    boolean contains(String confId) {
+        return entries.containsKey(confId);
+    }
+
+    /**
+     * Score the given run configuration against the pattern. Higher is
+     * better, {@link #NO_MATCH} if it doesn't match at all.
+     */
+    int score(String confId, Pattern pattern) {
+        Entry entry = entries.get(confId);
+        if (entry == null || pattern.chars.length == 0) {
+            return NO_MATCH;
+        }
+        int score = entry.name.score(pattern.chars);
+        score = Math.max(score, half(entry.folder.score(pattern.chars)));
+        score = Math.max(score, half(entry.type.score(pattern.chars)) - SUBSTRING / 4);
+        if (score == NO_MATCH) {
+            return NO_MATCH;
+        }
+        // prefer the shorter name if everything else is equal
+        return score + entry.recencyBonus - entry.name.chars.length;
+    }
+
+    private static int half(int score) {
+        return score == NO_MATCH ? NO_MATCH : score / 2;
+    }
+
+    @NotNull
+    static Pattern pattern(@Nullable String pattern) {
+        return new Pattern(pattern == null ? "" : pattern);
+    }
+
+    static final class Pattern {
+        private final char[] chars;
+
+        private Pattern(String pattern) {
+            chars = pattern.replace(" ", "").toLowerCase(Locale.ROOT).toCharArray();
+        }
+
+        boolean isEmpty() {
+            return chars.length == 0;
+        }
+    }
+
+    private static final class Entry {
+        private final Field name;
+        private final Field folder;
+        private final Field type;
+        private final int recencyBonus;
+
+        private Entry(Field name, Field folder, Field type, int recencyBonus) {
+            this.name = name;
+            this.folder = folder;
+            this.type = type;
+            this.recencyBonus = recencyBonus;
+        }
+    }
+
+    private static final class Field {
+        private static final Field EMPTY = new Field("", new char[0], new boolean[0]);
+
+        private final String string;
+        private final char[] chars;
+        private final boolean[] wordStarts;
+
+        private Field(String string, char[] chars, boolean[] wordStarts) {
+            this.string = string;
+            this.chars = chars;
+            this.wordStarts = wordStarts;
+        }
+
+        /**
+         * @param previous The field of the previous index, returned if the
+         *                 string didn't change.
+         */
+        private static Field of(@Nullable String string, @Nullable Field previous) {
+            if (string == null || string.isEmpty()) {
+                return EMPTY;
+            }
+            if (previous != null && previous.string.equals(string)) {
+                return previous;
+            }
+            char[] chars = new char[string.length()];
+            boolean[] wordStarts = new boolean[string.length()];
+            char prev = ' ';
+            for (int i = 0; i < chars.length; i++) {
+                char c = string.charAt(i);
+                chars[i] = Character.toLowerCase(c);
+                wordStarts[i] = Character.isLetterOrDigit(c)
+                        && (!Character.isLetterOrDigit(prev)
+                        || Character.isUpperCase(c) && !Character.isUpperCase(prev)
+                        || Character.isDigit(c) != Character.isDigit(prev));
+                prev = c;
+            }
+            return new Field(string, chars, wordStarts);
+        }
+
+        private int score(char[] pattern) {
+            if (pattern.length > chars.length) {
+                return NO_MATCH;
+            }
+            if (regionMatches(0, pattern)) {
+                return PREFIX;
+            }
+            if (matchesInitials(pattern)) {
+                return INITIALS;
+            }
+            int substring = NO_MATCH;
+            for (int i = 1; i <= chars.length - pattern.length; i++) {
+                if (regionMatches(i, pattern)) {
+                    if (wordStarts[i]) {
+                        return WORD_SUBSTRING;
+                    }
+                    if (substring == NO_MATCH) {
+                        substring = SUBSTRING;
+                    }
+                }
+            }
+            return substring;
+        }
+
+        private boolean regionMatches(int offset, char[] pattern) {
+            for (int i = 0; i < pattern.length; i++) {
+                if (chars[offset + i] != pattern[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Match the pattern against word starts: each pattern character
+         * either continues the current word or starts one of the following
+         * words, e.g. "riwp" or "runidwplug" for "Run IDEA with plugin".
+         * The match has to start at the first word. {@code reached[p]} tells
+         * whether the pattern so far can be matched up to position
+         * {@code p}, so all ways to match it are tried at once.
+         */
+        private boolean matchesInitials(char[] pattern) {
+            int first = 0;
+            while (first < chars.length && !wordStarts[first]) {
+                first++;
+            }
+            if (first == chars.length || chars[first] != pattern[0]) {
+                return false;
+            }
+            boolean[] reached = new boolean[chars.length + 1];
+            boolean[] next = new boolean[chars.length + 1];
+            reached[first + 1] = true;
+            for (int i = 1; i < pattern.length; i++) {
+                boolean anyReached = false;
+                boolean anyNext = false;
+                for (int pos = 0; pos < chars.length; pos++) {
+                    anyReached |= reached[pos];
+                    boolean matches = chars[pos] == pattern[i]
+                            && (wordStarts[pos] ? anyReached : reached[pos]);
+                    next[pos + 1] = matches;
+                    anyNext |= matches;
+                }
+                if (!anyNext) {
+                    return false;
+                }
+                boolean[] swap = reached;
+                reached = next;
+                next = swap;
+            }
+            return true;
+        }
+    }
+}
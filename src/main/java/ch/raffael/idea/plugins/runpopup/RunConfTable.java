@@ -0,0 +1,636 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * The tracked information about run configurations, stored in one array per
+ * column and updated in place. Writers must be serialized by the caller,
+ * readers read optimistically.
+ *
+ * @author Raffael Herzog
+ */
+final class RunConfTable {
+
+    static final byte FAVORITE = 1;
+    static final byte HELPER = 1 << 1;
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+
+    private int size = 0;
+    private int flaggedCount = 0;
+    private String[] confIds = new String[INITIAL_CAPACITY];
+    private String[] executorIds = new String[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private double[] launchScores = new double[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    /**
+     * The recency order: the next more recently and the next less recently
+     * used slot, {@link #NONE} at the ends.
+     */
+    private int[] newer = new int[INITIAL_CAPACITY];
+    private int[] older = new int[INITIAL_CAPACITY];
+    private int newest = NONE;
+    private int oldest = NONE;
+    /**
+     * Open addressing hash index from ID to slot + 1, 0 is empty. At most
+     * half full.
+     */
+    private int[] index = new int[INITIAL_CAPACITY * 2];
+    /**
+     * Incremented on each write, to know when {@link #byRecency} is stale.
+     */
+    private long version = 0;
+    @Nullable
+    private volatile ByRecency byRecency = null;
+
+    RunConfTable() {
+    }
+
+    // reading, safe from any thread
+
+    /**
+     * The executor last used for the given run configuration, {@code null}
+     * if it isn't tracked or the executor isn't known.
+     */
+    @Nullable
+    String executorId(String confId) {
+        long stamp = lock.tryOptimisticRead();
+        String[] executorIds = this.executorIds;
+        int slot = find(this.confIds, this.index, confId);
+        String result = slot >= 0 && slot < executorIds.length ? executorIds[slot] : null;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slot = slot(confId);
+                result = slot < 0 ? null : this.executorIds[slot];
+            }
+            finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The timestamp of the given run configuration, {@code Long.MIN_VALUE}
+     * if it isn't tracked.
+     */
+    long timestamp(String confId) {
+        long stamp = lock.tryOptimisticRead();
+        long[] timestamps = this.timestamps;
+        int slot = find(this.confIds, this.index, confId);
+        long result = slot >= 0 && slot < timestamps.length ? timestamps[slot] : Long.MIN_VALUE;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slot = slot(confId);
+                result = slot < 0 ? Long.MIN_VALUE : this.timestamps[slot];
+            }
+            finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The launch score of the given run configuration decayed to
+     * {@code now}, 0 if it isn't tracked.
+     */
+    double launchScore(String confId, long now) {
+        long stamp = lock.tryOptimisticRead();
+        long[] timestamps = this.timestamps;
+        double[] launchScores = this.launchScores;
+        int slot = find(this.confIds, this.index, confId);
+        double result = slot >= 0 && slot < timestamps.length && slot < launchScores.length
+                        ? RunConfigurationUseTracker.decayedLaunchScore(launchScores[slot], timestamps[slot], now)
+                        : 0;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slot = slot(confId);
+                result = slot < 0 ? 0 : RunConfigurationUseTracker.decayedLaunchScore(
+                        this.launchScores[slot], this.timestamps[slot], now);
+            }
+            finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The flags of the given run configuration, 0 if it isn't tracked.
+     */
+    byte flags(String confId) {
+        long stamp = lock.tryOptimisticRead();
+        byte[] flags = this.flags;
+        int slot = find(this.confIds, this.index, confId);
+        byte result = slot >= 0 && slot < flags.length ? flags[slot] : 0;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slot = slot(confId);
+                result = slot < 0 ? 0 : this.flags[slot];
+            }
+            finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The IDs of all entries, most recently used first. The list is built
+     * once per modification and shared by all readers until the next one.
+     */
+    @NotNull
+    List<String> confIdsByRecency() {
+        long stamp = lock.readLock();
+        try {
+            var byRecency = this.byRecency;
+            if (byRecency == null || byRecency.version != version) {
+                String[] ids = new String[size];
+                int pos = 0;
+                for (int slot = newest; slot != NONE; slot = older[slot]) {
+                    ids[pos++] = confIds[slot];
+                }
+                byRecency = new ByRecency(version, List.of(ids));
+                this.byRecency = byRecency;
+            }
+            return byRecency.confIds;
+        }
+        finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Pass all entries to the given consumer, holding a read lock.
+     */
+    void forEach(EntryConsumer consumer) {
+        long stamp = lock.readLock();
+        try {
+            for (int slot = 0; slot < size; slot++) {
+                consumer.accept(confIds[slot], executorIds[slot], timestamps[slot], launchScores[slot], flags[slot]);
+            }
+        }
+        finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // writing, serialized by the caller
+
+    /**
+     * The slot of the given run configuration, -1 if it isn't tracked.
+     */
+    int slot(String confId) {
+        return find(confIds, index, confId);
+    }
+
+    @NotNull
+    String confId(int slot) {
+        return confIds[slot];
+    }
+
+    @Nullable
+    String executorId(int slot) {
+        return executorIds[slot];
+    }
+
+    long timestamp(int slot) {
+        return timestamps[slot];
+    }
+
+    double launchScore(int slot) {
+        return launchScores[slot];
+    }
+
+    byte flags(int slot) {
+        return flags[slot];
+    }
+
+    /**
+     * Add or update the entry of the given run configuration. Allocates only
+     * if a new entry exceeds the capacity.
+     */
+    void put(String confId, @Nullable String executorId, long timestamp, double launchScore, byte flags) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slot(confId);
+            if (slot < 0) {
+                slot = size++;
+                ensureCapacity(size);
+                confIds[slot] = confId;
+                indexInsert(slot);
+            }
+            else {
+                unlink(slot);
+                if (this.flags[slot] != 0) {
+                    flaggedCount--;
+                }
+            }
+            executorIds[slot] = intern(executorId);
+            timestamps[slot] = timestamp;
+            launchScores[slot] = launchScore;
+            this.flags[slot] = flags;
+            if (flags != 0) {
+                flaggedCount++;
+            }
+            link(slot);
+            version++;
+        }
+        finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove the entry of the given run configuration, if any.
+     *
+     * @return {@code true} if it has been removed.
+     */
+    boolean remove(String confId) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slot(confId);
+            if (slot < 0) {
+                return false;
+            }
+            removeSlot(slot);
+            version++;
+            return true;
+        }
+        finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Keep only the entries accepted by the given predicate on the slot.
+     *
+     * @return {@code true} if any entries have been removed.
+     */
+    boolean retain(IntPredicate keep) {
+        long stamp = lock.writeLock();
+        try {
+            boolean removed = false;
+            // removing a slot moves the last one into its place, so go
+            // backwards to test each slot exactly once
+            for (int slot = size - 1; slot >= 0; slot--) {
+                if (!keep.test(slot)) {
+                    removeSlot(slot);
+                    removed = true;
+                }
+            }
+            if (removed) {
+                version++;
+            }
+            return removed;
+        }
+        finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Drop the least recently used entries without flags, keeping at most
+     * {@code maxEntries} of them (0 for no limit), and those not used since
+     * {@code minTimestamp}. Favorites and helpers are always kept. Only
+     * looks at the entries actually dropped and the flagged ones between
+     * them.
+     *
+     * @return {@code true} if any entries have been removed.
+     */
+    boolean evict(int maxEntries, long minTimestamp) {
+        if ((maxEntries <= 0 || size - flaggedCount <= maxEntries) && minTimestamp == Long.MIN_VALUE) {
+            return false;
+        }
+        long stamp = lock.writeLock();
+        try {
+            boolean removed = false;
+            int slot = oldest;
+            while (slot != NONE) {
+                int next = newer[slot];
+                if (flags[slot] == 0) {
+                    // the entries are ordered by timestamp, once one is kept,
+                    // all more recent ones are kept, too
+                    if ((maxEntries <= 0 || size - flaggedCount <= maxEntries) && timestamps[slot] >= minTimestamp) {
+                        break;
+                    }
+                    if (next == size - 1) {
+                        // the last slot is about to be moved into this one
+                        next = slot;
+                    }
+                    removeSlot(slot);
+                    removed = true;
+                }
+                slot = next;
+            }
+            if (removed) {
+                version++;
+            }
+            return removed;
+        }
+        finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replace all entries with the given ones. If an ID occurs more than
+     * once, the last entry wins.
+     */
+    void replaceAll(Collection<RunConfigurationUseTracker.RunConfInfo> entries) {
+        Map<String, RunConfigurationUseTracker.RunConfInfo> unique = new LinkedHashMap<>();
+        for (RunConfigurationUseTracker.RunConfInfo rci : entries) {
+            if (rci.confId != null) {
+                unique.put(rci.confId, rci);
+            }
+        }
+        long stamp = lock.writeLock();
+        try {
+            int size = unique.size();
+            int capacity = INITIAL_CAPACITY;
+            while (capacity < size) {
+                capacity *= 2;
+            }
+            confIds = new String[capacity];
+            executorIds = new String[capacity];
+            timestamps = new long[capacity];
+            launchScores = new double[capacity];
+            flags = new byte[capacity];
+            newer = new int[capacity];
+            older = new int[capacity];
+            flaggedCount = 0;
+            int slot = 0;
+            for (RunConfigurationUseTracker.RunConfInfo rci : unique.values()) {
+                confIds[slot] = rci.confId;
+                executorIds[slot] = intern(rci.executorId);
+                timestamps[slot] = rci.timestamp;
+                launchScores[slot] = rci.launchScore;
+                flags[slot] = (byte) ((rci.favorite ? FAVORITE : 0) | (rci.helper ? HELPER : 0));
+                if (flags[slot] != 0) {
+                    flaggedCount++;
+                }
+                slot++;
+            }
+            this.size = size;
+            index = new int[capacity * 2];
+            for (slot = 0; slot < size; slot++) {
+                indexInsert(slot);
+            }
+            int[] byRecency = IntStream.range(0, size).boxed()
+                    .sorted(this::compareRecency)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            int previous = NONE;
+            for (int s : byRecency) {
+                newer[s] = previous;
+                older[s] = NONE;
+                if (previous != NONE) {
+                    older[previous] = s;
+                }
+                previous = s;
+            }
+            newest = size == 0 ? NONE : byRecency[0];
+            oldest = previous;
+            version++;
+        }
+        finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void removeSlot(int slot) {
+        unlink(slot);
+        indexRemove(slot);
+        if (flags[slot] != 0) {
+            flaggedCount--;
+        }
+        int last = size - 1;
+        if (slot != last) {
+            // move the last slot into the gap
+            confIds[slot] = confIds[last];
+            executorIds[slot] = executorIds[last];
+            timestamps[slot] = timestamps[last];
+            launchScores[slot] = launchScores[last];
+            flags[slot] = flags[last];
+            newer[slot] = newer[last];
+            older[slot] = older[last];
+            if (newer[slot] == NONE) {
+                newest = slot;
+            }
+            else {
+                older[newer[slot]] = slot;
+            }
+            if (older[slot] == NONE) {
+                oldest = slot;
+            }
+            else {
+                newer[older[slot]] = slot;
+            }
+            index[indexPosition(last)] = slot + 1;
+        }
+        confIds[last] = null;
+        executorIds[last] = null;
+        size = last;
+    }
+
+    /**
+     * Insert the slot into the recency order, searching from the most
+     * recently used end. A launch makes its entry the most recent, so that's
+     * usually the first position.
+     */
+    private void link(int slot) {
+        int before = NONE;
+        int after = newest;
+        while (after != NONE && compareRecency(slot, after) > 0) {
+            before = after;
+            after = older[after];
+        }
+        newer[slot] = before;
+        older[slot] = after;
+        if (before == NONE) {
+            newest = slot;
+        }
+        else {
+            older[before] = slot;
+        }
+        if (after == NONE) {
+            oldest = slot;
+        }
+        else {
+            newer[after] = slot;
+        }
+    }
+
+    private void unlink(int slot) {
+        int before = newer[slot];
+        int after = older[slot];
+        if (before == NONE) {
+            newest = after;
+        }
+        else {
+            older[before] = after;
+        }
+        if (after == NONE) {
+            oldest = before;
+        }
+        else {
+            newer[after] = before;
+        }
+    }
+
+    /**
+     * Ordered by timestamp descending, then by ID, like the tracker always
+     * did.
+     */
+    private int compareRecency(int a, int b) {
+        int cmp = Long.compare(timestamps[b], timestamps[a]);
+        return cmp != 0 ? cmp : confIds[a].compareTo(confIds[b]);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= confIds.length) {
+            return;
+        }
+        int newCapacity = confIds.length * 2;
+        confIds = Arrays.copyOf(confIds, newCapacity);
+        executorIds = Arrays.copyOf(executorIds, newCapacity);
+        timestamps = Arrays.copyOf(timestamps, newCapacity);
+        launchScores = Arrays.copyOf(launchScores, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+        newer = Arrays.copyOf(newer, newCapacity);
+        older = Arrays.copyOf(older, newCapacity);
+        // rebuild the index at the new size, keeping it at most half full
+        index = new int[newCapacity * 2];
+        for (int slot = 0; slot < capacity - 1; slot++) {
+            indexInsert(slot);
+        }
+    }
+
+    private void indexInsert(int slot) {
+        int mask = index.length - 1;
+        int i = hash(confIds[slot]) & mask;
+        while (index[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        index[i] = slot + 1;
+    }
+
+    private int indexPosition(int slot) {
+        int mask = index.length - 1;
+        int i = hash(confIds[slot]) & mask;
+        while (index[i] != slot + 1) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Remove the slot from the index, shifting the following entries of the
+     * probe sequence back into the gap so no tombstones are needed.
+     */
+    private void indexRemove(int slot) {
+        int mask = index.length - 1;
+        int gap = indexPosition(slot);
+        for (int i = (gap + 1) & mask; index[i] != 0; i = (i + 1) & mask) {
+            int home = hash(confIds[index[i] - 1]) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                index[gap] = index[i];
+                gap = i;
+            }
+        }
+        index[gap] = 0;
+    }
+
+    /**
+     * Find the slot of an ID. Readers call this without a lock, the arrays
+     * may be changing concurrently, so don't trust anything: the result is
+     * only used if the read is validated afterwards.
+     */
+    private static int find(String[] confIds, int[] index, String confId) {
+        int mask = index.length - 1;
+        int i = hash(confId) & mask;
+        for (int probes = 0; probes < index.length; probes++, i = (i + 1) & mask) {
+            int entry = index[i];
+            if (entry == 0) {
+                return NONE;
+            }
+            int slot = entry - 1;
+            if (slot < confIds.length && confId.equals(confIds[slot])) {
+                return slot;
+            }
+        }
+        return NONE;
+    }
+
+    private static int hash(String confId) {
+        int h = confId.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * There are only a few executors, share their ID strings among all
+     * entries instead of keeping one copy per entry loaded from the
+     * workspace file.
+     */
+    @Nullable
+    private static String intern(@Nullable String executorId) {
+        return executorId == null ? null : executorId.intern();
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(String confId, @Nullable String executorId, long timestamp, double launchScore, byte flags);
+    }
+
+    private static final class ByRecency {
+        private final long version;
+        private final List<String> confIds;
+
+        private ByRecency(long version, List<String> confIds) {
+            this.version = version;
+            this.confIds = confIds;
+        }
+    }
+}
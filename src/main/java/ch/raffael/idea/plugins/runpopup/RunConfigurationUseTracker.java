@@ -22,28 +22,44 @@
 
 package ch.raffael.idea.plugins.runpopup;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.intellij.execution.ExecutionListener;
 import com.intellij.execution.RunManager;
 import com.intellij.execution.RunnerAndConfigurationSettings;
 import com.intellij.execution.process.ProcessHandler;
 import com.intellij.execution.runners.ExecutionEnvironment;
-import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.PersistentStateComponentWithModificationTracker;
 import com.intellij.openapi.components.RoamingType;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import static ch.raffael.idea.plugins.runpopup.RunPopupLatency.runPopupLatency;
+
 
 /**
  * Track the use of run configurations. Used to sort run configurations in the
@@ -54,13 +70,72 @@ import org.jetbrains.annotations.Nullable;
 @Service(Service.Level.PROJECT)
 @State(name = "ch.raffael.plugins.idea.runpopup.RunConfigurationUseTracker",
         storages = @Storage(value = StoragePathMacros.WORKSPACE_FILE, roamingType = RoamingType.DISABLED))
-public final class RunConfigurationUseTracker implements PersistentStateComponent<RunConfigurationUseTracker.State> {
-
+public final class RunConfigurationUseTracker
+        implements PersistentStateComponentWithModificationTracker<RunConfigurationUseTracker.State>, Disposable {
+
+    private static final Logger LOG = Logger.getInstance(RunConfigurationUseTracker.class);
+
+    /**
+     * Obsolete entries are removed on run configuration events. As a safety
+     * net for missed events, the tracker is also reconciled with the
+     * RunManager periodically.
+     */
+    private static final long RECONCILE_INTERVAL_MINUTES = 15;
+
+    /**
+     * The half-life of the launch scores used for ranking by frecency: a
+     * launch three days ago counts half as much as a launch now.
+     */
+    static final long LAUNCH_SCORE_HALF_LIFE_MILLIS = TimeUnit.DAYS.toMillis(3);
+
+    private static final long PENDING_LAUNCH_TIMEOUT_MINUTES = 10;
+
+    /**
+     * Serializes writers. Readers never take this lock: the {@link #records}
+     * are read optimistically, see {@link RunConfTable}, the other state is
+     * immutable and replaced by writers.
+     */
     private final Object stateLock = new Object();
     private final Project project;
-    private State state = new State();
 
-    private final Map<String, Integer> runningConfigurations = new ConcurrentHashMap<>(4, .7f, 1);
+    private volatile boolean orderFavoritesByLastUsed = true;
+    private volatile boolean orderOthersByLastUsed = true;
+    private volatile boolean lastUsedOnTop = true;
+    private volatile boolean groupByFolders = false;
+    private volatile boolean orderByFrecency = false;
+    private volatile boolean speculativeBuild = false;
+    private volatile int launchSetConcurrency = State.DEFAULT_LAUNCH_SET_CONCURRENCY;
+    private volatile int historyMaxEntries = State.DEFAULT_HISTORY_MAX_ENTRIES;
+    private volatile int historyMaxAgeDays = State.DEFAULT_HISTORY_MAX_AGE_DAYS;
+    /**
+     * Immutable, replaced on each change.
+     */
+    private volatile List<LaunchSet> launchSets = List.of();
+    private final RunConfTable records = new RunConfTable();
+
+    /**
+     * The live processes per run configuration, oldest first. The lists are
+     * immutable.
+     */
+    private final Map<String, List<RunningProcess>> runningProcesses = new ConcurrentHashMap<>(4, .7f, 1);
+    private final List<Consumer<String>> runningListeners = new CopyOnWriteArrayList<>();
+    /**
+     * The time launches have been scheduled by execution ID, until their
+     * process is started, for {@link RunPopupLatency.Timer#LAUNCH_TO_START}.
+     */
+    private final Map<Long, Long> pendingLaunches = new ConcurrentHashMap<>(4, .7f, 1);
+
+    @Nullable
+    private volatile ScheduledFuture<?> reconciliation = null;
+
+    private final AtomicLong modificationCount = new AtomicLong();
+    /**
+     * The state last returned by {@link #getState()}, returned again as long
+     * as nothing changes.
+     */
+    @Nullable
+    private volatile SavedState savedState = null;
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
 
     public RunConfigurationUseTracker(Project project) {
         this.project = project;
@@ -72,165 +147,603 @@ public final class RunConfigurationUseTracker implements PersistentStateComponen
                 "project.getService(RunConfigurationUseTracker.class)");
     }
 
+    /**
+     * Mark the run configuration as used with the given executor, e.g. when
+     * the user launches it from the popup. This updates the timestamp and
+     * executor only, the launch score is counted by {@link #recordLaunch}
+     * when the platform actually schedules the launch, so it's counted once
+     * no matter how it has been launched.
+     */
     void touchRunConfiguration(@NotNull String confId, @NotNull String executorId) {
+        update(confId, executorId, 0);
+    }
+
+    /**
+     * Record a launch of the run configuration: like
+     * {@link #touchRunConfiguration}, but also adds 1 to its launch score.
+     * Called by the {@link MyExecutionListener} only.
+     */
+    void recordLaunch(@NotNull String confId, @NotNull String executorId) {
+        update(confId, executorId, 1);
+    }
+
+    private void update(String confId, String executorId, double launchScoreIncrement) {
         synchronized (stateLock) {
-            RunConfInfo rci = state.runConfInfo.computeIfAbsent(confId, (k) -> new RunConfInfo(confId, executorId));
-            rci.timestamp = System.currentTimeMillis();
-            rci.executorId = executorId;
-            cleanupObsoleteStateEntries();
+            int slot = records.slot(confId);
+            long now = System.currentTimeMillis();
+            // the score is stored at the time of the timestamp, so decay it
+            // to now even if it isn't incremented
+            double launchScore = (slot < 0
+                                  ? 0
+                                  : decayedLaunchScore(records.launchScore(slot), records.timestamp(slot), now))
+                                 + launchScoreIncrement;
+            byte flags = slot < 0 ? 0 : records.flags(slot);
+            records.put(confId, executorId, now, launchScore, flags);
+            // the touched entry is the most recent one, nothing became older
+            records.evict(historyMaxEntries, Long.MIN_VALUE);
         }
+        changed();
+    }
+
+    /**
+     * Whether a launch has been scheduled but its process hasn't been
+     * started yet, e.g. because its before-run tasks are running. Launches
+     * the platform never reported back on are dropped after
+     * {@link #PENDING_LAUNCH_TIMEOUT_MINUTES}.
+     */
+    boolean isLaunchPending() {
+        long now = System.nanoTime();
+        long timeout = TimeUnit.MINUTES.toNanos(PENDING_LAUNCH_TIMEOUT_MINUTES);
+        pendingLaunches.values().removeIf(start -> now - start >= timeout);
+        return !pendingLaunches.isEmpty();
     }
 
     @Nullable
     String getLastRunExecutorId(String confId) {
-        synchronized (stateLock) {
-            RunConfInfo info = state.runConfInfo.get(confId);
-            if (info == null) {
-                return null;
-            } else {
-                return info.executorId;
-            }
-        }
+        return records.executorId(confId);
     }
 
     long getLastRunTimestamp(String confId) {
-        synchronized (stateLock) {
-            RunConfInfo info = state.runConfInfo.get(confId);
-            return info == null ? Long.MIN_VALUE : info.timestamp;
-        }
+        return records.timestamp(confId);
+    }
+
+    /**
+     * The launch score of the run configuration at the given time: each
+     * launch adds 1, the score decays exponentially with a half-life of
+     * {@link #LAUNCH_SCORE_HALF_LIFE_MILLIS}.
+     *
+     * <p>All scores decay by the same factor, so the order of the run
+     * configurations by launch score doesn't change over time, only by
+     * launching them.
+     */
+    double getLaunchScore(String confId, long now) {
+        return records.launchScore(confId, now);
+    }
+
+    static double decayedLaunchScore(double launchScore, long timestamp, long now) {
+        // the score is rebased to now whenever the timestamp is updated, so
+        // the timestamp is also the time of the score
+        double halfLives = (double) Math.max(now - timestamp, 0) / LAUNCH_SCORE_HALF_LIFE_MILLIS;
+        return launchScore * Math.pow(2, -halfLives);
+    }
+
+    /**
+     * The IDs of all tracked run configurations, most recently used first.
+     * The order is maintained incrementally on each update, so this doesn't
+     * sort. Run configurations that have never been used are not included.
+     */
+    Stream<String> lastUsedConfIds() {
+        return records.confIdsByRecency().stream();
     }
 
     boolean isRunning(String confId) {
-        return runningConfigurations.containsKey(confId);
+        return runningProcesses.containsKey(confId);
     }
 
-    boolean isFavorite(String confId) {
-        synchronized (stateLock) {
-            RunConfInfo info = state.runConfInfo.get(confId);
-            return info != null && info.favorite && !info.helper;
+    /**
+     * The IDs of all run configurations that are currently running.
+     */
+    @NotNull
+    Set<String> getRunningConfIds() {
+        return Set.copyOf(runningProcesses.keySet());
+    }
+
+    /**
+     * The live processes of the given run configuration, oldest first.
+     */
+    @NotNull
+    List<RunningProcess> getRunningProcesses(String confId) {
+        return runningProcesses.getOrDefault(confId, List.of());
+    }
+
+    /**
+     * Add a listener that will be notified with the ID of the run
+     * configuration whenever a process of it starts or terminates, see
+     * {@link #addChangeListener}.
+     */
+    void addRunningListener(Consumer<String> listener, Disposable parentDisposable) {
+        runningListeners.add(listener);
+        Disposer.register(parentDisposable, () -> runningListeners.remove(listener));
+    }
+
+    private void processStarted(String confId, RunningProcess process) {
+        runningProcesses.compute(confId, (k, v) -> {
+            List<RunningProcess> processes = new ArrayList<>(v == null ? List.of() : v);
+            processes.add(process);
+            return List.copyOf(processes);
+        });
+        runningChanged(confId);
+    }
+
+    private void processTerminated(String confId, ProcessHandler handler) {
+        runningProcesses.computeIfPresent(confId, (k, v) -> {
+            List<RunningProcess> processes = new ArrayList<>(v);
+            processes.removeIf(p -> p.handler == handler);
+            return processes.isEmpty() ? null : List.copyOf(processes);
+        });
+        runningChanged(confId);
+    }
+
+    private void runningChanged(String confId) {
+        for (Consumer<String> listener : runningListeners) {
+            listener.accept(confId);
         }
     }
 
+    boolean isFavorite(String confId) {
+        return (records.flags(confId) & RunConfTable.FAVORITE) != 0;
+    }
+
     void setFavorite(String confId, boolean favorite) {
-        synchronized (stateLock) {
-            RunConfInfo info = state.runConfInfo.get(confId);
-            if (info == null) {
-                if (favorite) {
-                    info = new RunConfInfo(confId, null);
-                    info.favorite = true;
-                    state.runConfInfo.put(confId, info);
-                }
-            } else {
-                info.favorite = favorite;
-                if (favorite) {
-                    info.helper = false;
-                }
-            }
-        }
+        setFlag(confId, RunConfTable.FAVORITE, favorite);
     }
 
     boolean isHelper(String confId) {
-        synchronized (stateLock) {
-            RunConfInfo info = state.runConfInfo.get(confId);
-            return info != null && info.helper && !info.favorite;
-        }
+        return (records.flags(confId) & RunConfTable.HELPER) != 0;
     }
 
     void setHelper(String confId, boolean helper) {
+        setFlag(confId, RunConfTable.HELPER, helper);
+    }
+
+    /**
+     * Set or clear a flag. Favorite and helper are mutually exclusive,
+     * setting one clears the other.
+     */
+    private void setFlag(String confId, byte flag, boolean set) {
         synchronized (stateLock) {
-            RunConfInfo info = state.runConfInfo.get(confId);
-            if (info == null) {
-                if (helper) {
-                    info = new RunConfInfo(confId, null);
-                    info.helper = false;
-                    state.runConfInfo.put(confId, info);
-                }
-            } else {
-                info.helper = helper;
-                if (info.helper) {
-                    info.favorite = false;
-                }
+            int slot = records.slot(confId);
+            if (slot < 0 && !set) {
+                return;
             }
+            byte flags = set ? flag : (byte) (records.flags(slot) & ~flag);
+            if (slot < 0) {
+                records.put(confId, null, System.currentTimeMillis(), 0, flags);
+            }
+            else {
+                records.put(confId, records.executorId(slot), records.timestamp(slot),
+                        records.launchScore(slot), flags);
+            }
+            // clearing a flag may exceed the maximum number of entries
+            applyRetention(System.currentTimeMillis());
         }
+        changed();
     }
 
     boolean isOrderFavoritesByLastUsed() {
-        synchronized (stateLock) {
-            return state.orderFavoritesByLastUsed;
-        }
+        return orderFavoritesByLastUsed;
     }
 
     void setOrderFavoritesByLastUsed(boolean enabled) {
-        synchronized (stateLock) {
-            state.orderFavoritesByLastUsed = enabled;
-        }
+        orderFavoritesByLastUsed = enabled;
+        changed();
     }
 
     boolean isOrderOthersByLastUsed() {
+        return orderOthersByLastUsed;
+    }
+
+    void setOrderOthersByLastUsed(boolean enabled) {
+        orderOthersByLastUsed = enabled;
+        changed();
+    }
+
+    boolean isLastUsedOnTop() {
+        return lastUsedOnTop;
+    }
+
+    void setLastUsedOnTop(boolean enabled) {
+        lastUsedOnTop = enabled;
+        changed();
+    }
+
+    boolean isOrderByFrecency() {
+        return orderByFrecency;
+    }
+
+    void setOrderByFrecency(boolean enabled) {
+        orderByFrecency = enabled;
+        changed();
+    }
+
+    /**
+     * The launch sets, ordered by name.
+     */
+    @NotNull
+    List<LaunchSet> getLaunchSets() {
+        return launchSets;
+    }
+
+    /**
+     * Save a launch set, replacing an existing one with the same name.
+     */
+    void saveLaunchSet(String name, List<String> confIds) {
+        LaunchSet launchSet = new LaunchSet();
+        launchSet.name = name;
+        launchSet.confIds = List.copyOf(confIds);
         synchronized (stateLock) {
-            return state.orderOthersByLastUsed;
+            List<LaunchSet> updated = new ArrayList<>(launchSets);
+            updated.removeIf(ls -> name.equals(ls.name));
+            updated.add(launchSet);
+            updated.sort(Comparator.comparing(ls -> ls.name));
+            launchSets = List.copyOf(updated);
         }
+        changed();
     }
 
-    void setOrderOthersByLastUsed(boolean enabled) {
+    void removeLaunchSet(String name) {
         synchronized (stateLock) {
-            state.orderOthersByLastUsed = enabled;
+            launchSets = launchSets.stream()
+                    .filter(ls -> !name.equals(ls.name))
+                    .collect(Collectors.toUnmodifiableList());
         }
+        changed();
     }
 
-    boolean isLastUsedOnTop() {
+    /**
+     * The maximum number of run configurations of a launch set that are
+     * launched concurrently.
+     */
+    int getLaunchSetConcurrency() {
+        return launchSetConcurrency;
+    }
+
+    void setLaunchSetConcurrency(int concurrency) {
+        launchSetConcurrency = Math.max(concurrency, 1);
+        changed();
+    }
+
+    boolean isSpeculativeBuild() {
+        return speculativeBuild;
+    }
+
+    void setSpeculativeBuild(boolean enabled) {
+        speculativeBuild = enabled;
+        changed();
+    }
+
+    /**
+     * The maximum number of run configurations remembered besides favorites
+     * and helpers, the least recently used ones are forgotten first. 0 to
+     * remember all of them.
+     */
+    int getHistoryMaxEntries() {
+        return historyMaxEntries;
+    }
+
+    void setHistoryMaxEntries(int maxEntries) {
         synchronized (stateLock) {
-            return state.lastUsedOnTop;
+            historyMaxEntries = Math.max(maxEntries, 0);
+            applyRetention(System.currentTimeMillis());
         }
+        changed();
     }
 
-    void setLastUsedOnTop(boolean enabled) {
+    /**
+     * Run configurations not used for this many days are forgotten, unless
+     * they're favorites or helpers. 0 to remember them forever.
+     */
+    int getHistoryMaxAgeDays() {
+        return historyMaxAgeDays;
+    }
+
+    void setHistoryMaxAgeDays(int maxAgeDays) {
         synchronized (stateLock) {
-            state.lastUsedOnTop = enabled;
+            historyMaxAgeDays = Math.max(maxAgeDays, 0);
+            applyRetention(System.currentTimeMillis());
         }
+        changed();
+    }
+
+    /**
+     * Apply the history retention to the records. Only called while holding
+     * the state lock.
+     *
+     * <p>Launches only check the maximum number of entries, they can't make
+     * anything older. The maximum age is applied on loading, on changes of
+     * the retention settings and on the periodic reconciliation.
+     *
+     * @return {@code true} if any entries have been forgotten.
+     */
+    private boolean applyRetention(long now) {
+        int maxAgeDays = historyMaxAgeDays;
+        return records.evict(historyMaxEntries,
+                maxAgeDays > 0 ? now - TimeUnit.DAYS.toMillis(maxAgeDays) : Long.MIN_VALUE);
     }
 
+    boolean isGroupByFolders() {
+        return groupByFolders;
+    }
+
+    void setGroupByFolders(boolean enabled) {
+        groupByFolders = enabled;
+        changed();
+    }
+
+    /**
+     * Incremented on each change of the tracked information or the options.
+     */
+    long getModificationCount() {
+        return modificationCount.get();
+    }
+
+    /**
+     * Add a listener that will be notified after each change of the tracked
+     * information or the options. Listeners may be called from any thread,
+     * they should return quickly.
+     */
+    void addChangeListener(Runnable listener, Disposable parentDisposable) {
+        changeListeners.add(listener);
+        Disposer.register(parentDisposable, () -> changeListeners.remove(listener));
+    }
+
+    private void changed() {
+        modificationCount.incrementAndGet();
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * The platform only saves the state if this changed since the last save.
+     * Bursts of launches between two saves result in one single save.
+     */
+    @Override
+    public long getStateModificationCount() {
+        return modificationCount.get();
+    }
+
+    /**
+     * Build the state to be saved. This doesn't need to take the state lock,
+     * the records are read under their own read lock. If nothing changed
+     * since the last call, the previous state is returned.
+     */
     @Override
     public State getState() {
-        synchronized (stateLock) {
-            return new State(state);
+        // read the count first: if anything changes while building, the
+        // state will be rebuilt next time
+        long stamp = modificationCount.get();
+        var saved = savedState;
+        if (saved != null && saved.modificationCount == stamp) {
+            return saved.state;
         }
+        State state = new State();
+        state.orderFavoritesByLastUsed = orderFavoritesByLastUsed;
+        state.orderOthersByLastUsed = orderOthersByLastUsed;
+        state.lastUsedOnTop = lastUsedOnTop;
+        state.groupByFolders = groupByFolders;
+        state.orderByFrecency = orderByFrecency;
+        state.speculativeBuild = speculativeBuild;
+        state.launchSetConcurrency = launchSetConcurrency;
+        state.historyMaxEntries = historyMaxEntries;
+        state.historyMaxAgeDays = historyMaxAgeDays;
+        state.launchSets = launchSets;
+        records.forEach((confId, executorId, timestamp, launchScore, flags) -> {
+            RunConfInfo rci = new RunConfInfo(confId, executorId);
+            rci.timestamp = timestamp;
+            rci.launchScore = launchScore;
+            rci.favorite = (flags & RunConfTable.FAVORITE) != 0;
+            rci.helper = (flags & RunConfTable.HELPER) != 0;
+            state.runConfInfo.put(rci.confId, rci);
+        });
+        savedState = new SavedState(stamp, state);
+        return state;
     }
 
     @Override
     public void loadState(State state) {
+        List<LaunchSet> loadedLaunchSets = state.launchSets.stream()
+                .filter(ls -> ls.name != null)
+                .map(LaunchSet::new)
+                .sorted(Comparator.comparing(ls -> ls.name))
+                .collect(Collectors.toUnmodifiableList());
+        synchronized (stateLock) {
+            orderFavoritesByLastUsed = state.orderFavoritesByLastUsed;
+            orderOthersByLastUsed = state.orderOthersByLastUsed;
+            lastUsedOnTop = state.lastUsedOnTop;
+            groupByFolders = state.groupByFolders;
+            orderByFrecency = state.orderByFrecency;
+            speculativeBuild = state.speculativeBuild;
+            launchSetConcurrency = Math.max(state.launchSetConcurrency, 1);
+            historyMaxEntries = Math.max(state.historyMaxEntries, 0);
+            historyMaxAgeDays = Math.max(state.historyMaxAgeDays, 0);
+            launchSets = loadedLaunchSets;
+            records.replaceAll(state.runConfInfo.values());
+            applyRetention(System.currentTimeMillis());
+        }
+        changed();
+    }
+
+    @Override
+    public void initializeComponent() {
+        reconciliation = AppExecutorUtil.getAppScheduledExecutorService().scheduleWithFixedDelay(
+                this::removeObsoleteEntries,
+                RECONCILE_INTERVAL_MINUTES, RECONCILE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void dispose() {
+        var reconciliation = this.reconciliation;
+        if (reconciliation != null) {
+            reconciliation.cancel(false);
+        }
+    }
+
+    void removeEntry(String confId) {
+        boolean removed;
         synchronized (stateLock) {
-            this.state = new State(state);
+            removed = records.remove(confId);
+        }
+        if (removed) {
+            changed();
         }
     }
 
-    private void cleanupObsoleteStateEntries() {
-        Set<String> knownConfIds = RunManager.getInstance(project).getAllSettings().stream()
-                .map(RunnerAndConfigurationSettings::getUniqueID)
-                .collect(Collectors.toSet());
+    void renameEntry(String oldConfId, String newConfId) {
         synchronized (stateLock) {
-            state.runConfInfo.values().removeIf(rci -> !knownConfIds.contains(rci.confId));
+            int slot = records.slot(oldConfId);
+            if (slot >= 0) {
+                String executorId = records.executorId(slot);
+                long timestamp = records.timestamp(slot);
+                double launchScore = records.launchScore(slot);
+                byte flags = records.flags(slot);
+                records.remove(oldConfId);
+                if (records.slot(newConfId) < 0) {
+                    records.put(newConfId, executorId, timestamp, launchScore, flags);
+                }
+            }
+            launchSets = launchSets.stream()
+                    .map(ls -> {
+                        if (!ls.confIds.contains(oldConfId)) {
+                            return ls;
+                        }
+                        LaunchSet renamed = new LaunchSet(ls);
+                        renamed.confIds = ls.confIds.stream()
+                                .map(id -> id.equals(oldConfId) ? newConfId : id)
+                                .collect(Collectors.toUnmodifiableList());
+                        return renamed;
+                    })
+                    .collect(Collectors.toUnmodifiableList());
+        }
+        changed();
+    }
+
+    /**
+     * Reconcile the tracker with the run configurations known to the
+     * RunManager and apply the history retention. The RunManager is queried
+     * without holding the state lock, entries touched in the meantime are
+     * kept.
+     */
+    void removeObsoleteEntries() {
+        if (project.isDisposed()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        Set<String> knownConfIds;
+        try {
+            knownConfIds = RunManager.getInstance(project).getAllSettings().stream()
+                    .map(RunnerAndConfigurationSettings::getUniqueID)
+                    .collect(Collectors.toSet());
+        } catch (ProcessCanceledException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            LOG.warn("Error reading run configurations of " + project, e);
+            return;
+        }
+        boolean modified;
+        synchronized (stateLock) {
+            modified = records.retain(
+                    slot -> records.timestamp(slot) >= startTime || knownConfIds.contains(records.confId(slot)));
+            modified |= applyRetention(startTime);
+        }
+        if (modified) {
+            changed();
         }
     }
 
     @SuppressWarnings("WeakerAccess")
     public static final class State {
 
+        static final int DEFAULT_LAUNCH_SET_CONCURRENCY = 3;
+        static final int DEFAULT_HISTORY_MAX_ENTRIES = 0;
+        static final int DEFAULT_HISTORY_MAX_AGE_DAYS = 0;
+
         public boolean orderFavoritesByLastUsed = true;
         public boolean orderOthersByLastUsed = true;
         public boolean lastUsedOnTop = true;
+        public boolean groupByFolders = false;
+        public boolean orderByFrecency = false;
+        public boolean speculativeBuild = false;
+        public int launchSetConcurrency = DEFAULT_LAUNCH_SET_CONCURRENCY;
+        public int historyMaxEntries = DEFAULT_HISTORY_MAX_ENTRIES;
+        public int historyMaxAgeDays = DEFAULT_HISTORY_MAX_AGE_DAYS;
+        public List<LaunchSet> launchSets = new ArrayList<>();
         public Map<String, RunConfInfo> runConfInfo = new HashMap<>();
 
         public State() {
         }
+    }
+
+    /**
+     * A named set of run configurations that are launched together, see
+     * {@link LaunchSetRunner}.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final class LaunchSet {
+
+        public String name;
+        public List<String> confIds = new ArrayList<>();
+
+        @SuppressWarnings("unused")
+        public LaunchSet() {
+        }
+
+        public LaunchSet(LaunchSet that) {
+            this.name = that.name;
+            this.confIds = List.copyOf(that.confIds);
+        }
+    }
+
+    /**
+     * A live process of a run configuration.
+     */
+    static final class RunningProcess {
+        private final String executorId;
+        private final ExecutionEnvironment environment;
+        private final ProcessHandler handler;
+        private final long startTime;
+
+        private RunningProcess(String executorId, ExecutionEnvironment environment, ProcessHandler handler) {
+            this.executorId = executorId;
+            this.environment = environment;
+            this.handler = handler;
+            this.startTime = System.currentTimeMillis();
+        }
+
+        String getExecutorId() {
+            return executorId;
+        }
+
+        ExecutionEnvironment getEnvironment() {
+            return environment;
+        }
+
+        ProcessHandler getHandler() {
+            return handler;
+        }
+
+        long getStartTime() {
+            return startTime;
+        }
+    }
 
-        public State(State that) {
-            this.orderFavoritesByLastUsed = that.orderFavoritesByLastUsed;
-            this.orderOthersByLastUsed = that.orderOthersByLastUsed;
-            this.lastUsedOnTop = that.lastUsedOnTop;
-            that.runConfInfo.values().stream()
-                    .map(RunConfInfo::new)
-                    .forEach((rci) -> this.runConfInfo.put(rci.confId, rci));
+    private static final class SavedState {
+        private final long modificationCount;
+        private final State state;
+
+        private SavedState(long modificationCount, State state) {
+            this.modificationCount = modificationCount;
+            this.state = state;
         }
     }
 
@@ -243,6 +756,10 @@ public final class RunConfigurationUseTracker implements PersistentStateComponen
         public long timestamp = System.currentTimeMillis();
         public boolean favorite = false;
         public boolean helper = false;
+        /**
+         * The launch score at {@link #timestamp}.
+         */
+        public double launchScore = 0;
 
         @SuppressWarnings("unused")
         public RunConfInfo() {
@@ -252,14 +769,6 @@ public final class RunConfigurationUseTracker implements PersistentStateComponen
             this.confId = confId;
             this.executorId = executorId;
         }
-
-        public RunConfInfo(RunConfInfo that) {
-            this.confId = that.confId;
-            this.executorId = that.executorId;
-            this.timestamp = that.timestamp;
-            this.favorite = that.favorite;
-            this.helper = that.helper;
-        }
     }
 
     public static class MyExecutionListener implements ExecutionListener {
@@ -267,29 +776,39 @@ public final class RunConfigurationUseTracker implements PersistentStateComponen
         public void processStartScheduled(@NotNull String executorId, @NotNull ExecutionEnvironment env) {
             if (env.getRunnerAndConfigurationSettings() != null) {
                 String confId = env.getRunnerAndConfigurationSettings().getUniqueID();
-                runConfigurationUseTracker(env.getProject()).touchRunConfiguration(confId, executorId);
+                var tracker = runConfigurationUseTracker(env.getProject());
+                tracker.pendingLaunches.put(env.getExecutionId(), RunPopupLatency.start());
+                tracker.recordLaunch(confId, executorId);
             }
         }
 
         @Override
         public void processStarted(@NotNull String executorId, @NotNull ExecutionEnvironment env, @NotNull ProcessHandler handler) {
-            updateRunConfCount(env.getRunnerAndConfigurationSettings(), 1);
+            var config = env.getRunnerAndConfigurationSettings();
+            if (config != null) {
+                var tracker = runConfigurationUseTracker(env.getProject());
+                tracker.processStarted(config.getUniqueID(), new RunningProcess(executorId, env, handler));
+                Long start = tracker.pendingLaunches.remove(env.getExecutionId());
+                if (start != null) {
+                    runPopupLatency().record(RunPopupLatency.Timer.LAUNCH_TO_START, start);
+                }
+            }
         }
 
         @Override
-        public void processTerminated(@NotNull String executorId, @NotNull ExecutionEnvironment env, @NotNull ProcessHandler handler, int exitCode) {
-            updateRunConfCount(env.getRunnerAndConfigurationSettings(), -1);
+        public void processNotStarted(@NotNull String executorId, @NotNull ExecutionEnvironment env) {
+            var config = env.getRunnerAndConfigurationSettings();
+            if (config != null) {
+                runConfigurationUseTracker(env.getProject()).pendingLaunches.remove(env.getExecutionId());
+            }
         }
 
-        private void updateRunConfCount(@Nullable RunnerAndConfigurationSettings config, int delta) {
-            if (config == null) {
-                return;
+        @Override
+        public void processTerminated(@NotNull String executorId, @NotNull ExecutionEnvironment env, @NotNull ProcessHandler handler, int exitCode) {
+            var config = env.getRunnerAndConfigurationSettings();
+            if (config != null) {
+                runConfigurationUseTracker(env.getProject()).processTerminated(config.getUniqueID(), handler);
             }
-            runConfigurationUseTracker(config.getConfiguration().getProject()).runningConfigurations
-                    .compute(config.getUniqueID(), (k, v) -> {
-                        int result = (v == null ? delta : v + delta);
-                        return result <= 0 ? null : result;
-                    });
         }
     }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.execution.configurations.RuntimeConfigurationException;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import org.jetbrains.annotations.NotNull;
+
+import static ch.raffael.idea.plugins.runpopup.RunPopupLatency.runPopupLatency;
+
+
+/**
+ * Validates run configurations in the background and caches the results, so
+ * the popup items never call {@code
+ * RunnerAndConfigurationSettings.checkSettings()} themselves.
+ *
+ * @author Raffael Herzog
+ */
+@Service(Service.Level.PROJECT)
+final class RunConfigurationValidator implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(RunConfigurationValidator.class);
+
+    private static final int MAX_THREADS = 2;
+
+    private final Map<String, Result> results = new ConcurrentHashMap<>();
+    private final AtomicLong modificationStamp = new AtomicLong();
+    private final BackgroundResolver<Validity> resolver =
+            new BackgroundResolver<>(this, "Run Popup Validation", MAX_THREADS);
+
+    @NotNull
+    static RunConfigurationValidator runConfigurationValidator(Project project) {
+        return Objects.requireNonNull(project.getService(RunConfigurationValidator.class),
+                "project.getService(RunConfigurationValidator.class)");
+    }
+
+    /**
+     * Get the cached validation result for the given run configuration. If
+     * there's no current result, a validation will be scheduled and
+     * {@link Validity#UNKNOWN} returned.
+     */
+    @NotNull
+    Validity validity(RunnerAndConfigurationSettings runConfiguration) {
+        long stamp = modificationStamp.get();
+        Result result = results.get(runConfiguration.getUniqueID());
+        if (result != null && result.runConfiguration == runConfiguration && result.stamp == stamp) {
+            return result.validity;
+        }
+        scheduleValidation(runConfiguration, stamp);
+        return Validity.UNKNOWN;
+    }
+
+    private void scheduleValidation(RunnerAndConfigurationSettings runConfiguration, long stamp) {
+        String confId = runConfiguration.getUniqueID();
+        resolver.schedule(confId, () -> validate(runConfiguration),
+                validity -> results.put(confId, new Result(runConfiguration, stamp, validity)));
+    }
+
+    /**
+     * Add a listener that will be called with the ID of the run
+     * configuration whenever a validation has completed, see
+     * {@link BackgroundResolver#addResultListener}.
+     */
+    void addResultListener(Consumer<String> listener, Disposable parentDisposable) {
+        resolver.addResultListener(listener, parentDisposable);
+    }
+
+    /**
+     * Cancel all pending validations, e.g. because the popup has been
+     * closed.
+     */
+    void cancelPending() {
+        resolver.cancelPending();
+    }
+
+    @NotNull
+    private static Validity validate(RunnerAndConfigurationSettings runConfiguration) {
+        long start = RunPopupLatency.start();
+        try {
+            runConfiguration.checkSettings();
+            runPopupLatency().recordValidation(runConfiguration.getType().getDisplayName(), start);
+            return Validity.VALID;
+        }
+        catch ( RuntimeConfigurationException e ) {
+            runPopupLatency().recordValidation(runConfiguration.getType().getDisplayName(), start);
+            return Validity.INVALID;
+        }
+        catch ( ProcessCanceledException e ) {
+            throw e;
+        }
+        catch ( RuntimeException e ) {
+            LOG.warn("Error validating run configuration " + runConfiguration.getName(), e);
+            return Validity.UNKNOWN;
+        }
+    }
+
+    void forget(String confId) {
+        results.remove(confId);
+    }
+
+    /**
+     * Invalidate all cached results and cancel the pending validations.
+     * Validations that can't be cancelled anymore will store their results
+     * with the old stamp, so they won't be used.
+     */
+    void invalidate() {
+        modificationStamp.incrementAndGet();
+        cancelPending();
+    }
+
+    @Override
+    public void dispose() {
+        results.clear();
+    }
+
+    enum Validity {
+        UNKNOWN, VALID, INVALID
+    }
+
+    private static final class Result {
+        private final RunnerAndConfigurationSettings runConfiguration;
+        private final long stamp;
+        private final Validity validity;
+
+        private Result(RunnerAndConfigurationSettings runConfiguration, long stamp, Validity validity) {
+            this.runConfiguration = runConfiguration;
+            this.stamp = stamp;
+            this.validity = validity;
+        }
+    }
+
+    public static class MyModuleRootListener implements ModuleRootListener {
+        private final Project project;
+
+        public MyModuleRootListener(Project project) {
+            this.project = project;
+        }
+
+        @Override
+        public void rootsChanged(@NotNull ModuleRootEvent event) {
+            runConfigurationValidator(project).invalidate();
+        }
+    }
+
+    public static class MyDumbModeListener implements DumbService.DumbModeListener {
+        private final Project project;
+
+        public MyDumbModeListener(Project project) {
+            this.project = project;
+        }
+
+        @Override
+        public void exitDumbMode() {
+            runConfigurationValidator(project).invalidate();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package ch.raffael.idea.plugins.runpopup;
+
+import com.intellij.execution.RunManager;
+import com.intellij.execution.RunManagerListener;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static ch.raffael.idea.plugins.runpopup.EnvironmentCache.environmentCache;
+import static ch.raffael.idea.plugins.runpopup.ExecutorCapabilities.executorCapabilities;
+import static ch.raffael.idea.plugins.runpopup.LaunchTelemetry.launchTelemetry;
+import static ch.raffael.idea.plugins.runpopup.RunConfActionPool.runConfActionPool;
+import static ch.raffael.idea.plugins.runpopup.RunConfigurationUseTracker.runConfigurationUseTracker;
+import static ch.raffael.idea.plugins.runpopup.RunConfigurationValidator.runConfigurationValidator;
+import static ch.raffael.idea.plugins.runpopup.RunPopupSnapshot.runPopupSnapshot;
+
+
+/**
+ * Forwards the RunManager events to the services that keep state per run
+ * configuration, so there's a single RunManager listener.
+ *
+ * @author Raffael Herzog
+ */
+final class RunManagerEvents {
+
+    private RunManagerEvents() {
+    }
+
+    public static class MyRunManagerListener implements RunManagerListener {
+        private final Project project;
+
+        public MyRunManagerListener(Project project) {
+            this.project = project;
+        }
+
+        @Override
+        public void runConfigurationAdded(@NotNull RunnerAndConfigurationSettings settings) {
+            runPopupSnapshot(project).runManagerChanged();
+        }
+
+        @Override
+        public void runConfigurationRemoved(@NotNull RunnerAndConfigurationSettings settings) {
+            String confId = settings.getUniqueID();
+            runConfigurationUseTracker(project).removeEntry(confId);
+            runConfigurationValidator(project).forget(confId);
+            executorCapabilities(project).forget(confId);
+            runConfActionPool(project).forget(confId);
+            launchTelemetry(project).forget(confId);
+            environmentCache(project).forget(confId);
+            runPopupSnapshot(project).runManagerChanged();
+        }
+
+        @Override
+        public void runConfigurationChanged(@NotNull RunnerAndConfigurationSettings settings, @Nullable String existingId) {
+            String confId = settings.getUniqueID();
+            if (existingId != null && !existingId.equals(confId)) {
+                runConfigurationUseTracker(project).renameEntry(existingId, confId);
+                launchTelemetry(project).rename(existingId, confId);
+            }
+            if (existingId != null) {
+                runConfigurationValidator(project).forget(existingId);
+                executorCapabilities(project).forget(existingId);
+                runConfActionPool(project).forget(existingId);
+                environmentCache(project).forget(existingId);
+            }
+            runConfigurationValidator(project).invalidate();
+            executorCapabilities(project).invalidate();
+            runConfActionPool(project).forget(confId);
+            environmentCache(project).forget(confId);
+            runPopupSnapshot(project).runManagerChanged();
+        }
+
+        @Override
+        public void beforeRunTasksChanged() {
+            runConfigurationValidator(project).invalidate();
+            environmentCache(project).clear();
+        }
+
+        @Override
+        public void endUpdate() {
+            runPopupSnapshot(project).runManagerChanged();
+        }
+
+        @Override
+        public void stateLoaded(@NotNull RunManager runManager, boolean isFirstLoadState) {
+            AppExecutorUtil.getAppExecutorService().execute(
+                    runConfigurationUseTracker(project)::removeObsoleteEntries);
+            runConfigurationValidator(project).invalidate();
+            executorCapabilities(project).invalidate();
+            runConfActionPool(project).clear();
+            environmentCache(project).clear();
+            runPopupSnapshot(project).runManagerChanged();
+        }
+    }
+}
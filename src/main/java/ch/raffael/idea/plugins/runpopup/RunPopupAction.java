@@ -22,8 +22,15 @@
 
 package ch.raffael.idea.plugins.runpopup;
 
+import java.awt.Rectangle;
+import java.util.function.Consumer;
+
 import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.ListModel;
+import javax.swing.SwingUtilities;
 
+import com.intellij.execution.RunnerAndConfigurationSettings;
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.actionSystem.ActionPlaces;
 import com.intellij.openapi.actionSystem.ActionToolbar;
@@ -36,11 +43,22 @@ import com.intellij.openapi.actionSystem.Presentation;
 import com.intellij.openapi.actionSystem.ex.CustomComponentAction;
 import com.intellij.openapi.actionSystem.impl.ActionButton;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.openapi.ui.popup.JBPopupListener;
+import com.intellij.openapi.ui.popup.LightweightWindowEvent;
 import com.intellij.openapi.ui.popup.ListPopup;
 import com.intellij.ui.LayeredIcon;
 import com.intellij.ui.awt.RelativePoint;
+import com.intellij.ui.popup.PopupFactoryImpl;
+import com.intellij.ui.popup.list.ListPopupImpl;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static ch.raffael.idea.plugins.runpopup.ExecutorCapabilities.executorCapabilities;
+import static ch.raffael.idea.plugins.runpopup.RunConfigurationUseTracker.runConfigurationUseTracker;
+import static ch.raffael.idea.plugins.runpopup.RunConfigurationValidator.runConfigurationValidator;
+import static ch.raffael.idea.plugins.runpopup.RunPopupLatency.runPopupLatency;
+import static ch.raffael.idea.plugins.runpopup.RunPopupSnapshot.runPopupSnapshot;
+import static ch.raffael.idea.plugins.runpopup.SpeculativeBuild.speculativeBuild;
 
 
 /**
@@ -68,19 +86,107 @@ public class RunPopupAction extends AnAction implements CustomComponentAction{
         if ( project == null ) {
             return;
         }
-        JComponent actionComponent = e.getPresentation().getClientProperty(COMPONENT_KEY);
+        showPopup(project, dataContext, e.getPresentation().getClientProperty(COMPONENT_KEY), true);
+    }
+
+    /**
+     * @param refresh Whether to show the popup again once the snapshot is
+     *                up to date if it had to be shown with an outdated
+     *                one.
+     */
+    private static void showPopup(Project project, DataContext dataContext, @Nullable JComponent actionComponent,
+                                  boolean refresh) {
+        long start = RunPopupLatency.start();
         RunPopupActionGroup group = new RunPopupActionGroup();
-        JBPopupFactory popupFactory = JBPopupFactory.getInstance();
-        ListPopup popup = popupFactory.createActionGroupPopup(
-                actionComponent == null ? "Run" : null,
-                group,
-                dataContext, JBPopupFactory.ActionSelectionAid.SPEEDSEARCH, false);
+        var popup = new RunConfListPopup(actionComponent == null ? "Run" : null, group, dataContext);
+        installLiveRefresh(popup, project);
+        popup.addListener(new JBPopupListener() {
+            @Override
+            public void onClosed(@NotNull LightweightWindowEvent event) {
+                // the items won't be painted anymore, their results aren't needed now
+                runConfigurationValidator(project).cancelPending();
+                executorCapabilities(project).cancelPending();
+            }
+        });
+        if ( runConfigurationUseTracker(project).isSpeculativeBuild() ) {
+            installSpeculativeBuild(popup, speculativeBuild(project));
+        }
         if ( actionComponent == null ) {
             popup.showCenteredInCurrentWindow(project);
         }
         else {
             popup.show(RelativePoint.getSouthWestOf(actionComponent));
         }
+        popup.shown();
+        if ( refresh && group.isOutdated() ) {
+            runPopupSnapshot(project).whenUpToDate(() -> SwingUtilities.invokeLater(() -> {
+                if ( popup.isUntouched() ) {
+                    popup.cancel();
+                    showPopup(project, dataContext, actionComponent, false);
+                }
+            }));
+        }
+        runPopupLatency().record(RunPopupLatency.Timer.POPUP_OPEN, start);
+    }
+
+    /**
+     * Refresh and repaint the rows of run configurations whose processes
+     * start or terminate while the popup is open, or whose validation or
+     * executor resolution completes in the background.
+     */
+    private static void installLiveRefresh(ListPopupImpl popup, Project project) {
+        Consumer<String> repaint = changedConfId -> SwingUtilities.invokeLater(() -> {
+            if ( popup.isDisposed() ) {
+                return;
+            }
+            JList<?> list = popup.getList();
+            ListModel<?> model = list.getModel();
+            for ( int i = 0; i < model.getSize(); i++ ) {
+                var action = runConfAction(model.getElementAt(i));
+                if ( action != null && changedConfId.equals(action.getRunConfiguration().getUniqueID()) ) {
+                    action.refreshIcon();
+                    Rectangle bounds = list.getCellBounds(i, i);
+                    if ( bounds != null ) {
+                        list.repaint(bounds);
+                    }
+                }
+            }
+        });
+        runConfigurationUseTracker(project).addRunningListener(repaint, popup);
+        runConfigurationValidator(project).addResultListener(repaint, popup);
+        executorCapabilities(project).addResultListener(repaint, popup);
+    }
+
+    private static void installSpeculativeBuild(ListPopup popup, SpeculativeBuild speculativeBuild) {
+        popup.addListSelectionListener(e -> {
+            Object selected = e.getSource() instanceof JList ? ((JList<?>)e.getSource()).getSelectedValue() : null;
+            speculativeBuild.highlighted(runConfiguration(selected));
+        });
+        popup.addListener(new JBPopupListener() {
+            @Override
+            public void onClosed(@NotNull LightweightWindowEvent event) {
+                speculativeBuild.cancel();
+            }
+        });
+    }
+
+    /**
+     * The run configuration action of a list item of the popup, {@code null}
+     * if it's another item.
+     */
+    @Nullable
+    static RunConfActionGroup runConfAction(@Nullable Object item) {
+        if ( item instanceof PopupFactoryImpl.ActionItem
+                && ((PopupFactoryImpl.ActionItem)item).getAction() instanceof RunConfActionGroup ) {
+            return (RunConfActionGroup)((PopupFactoryImpl.ActionItem)item).getAction();
+        }
+        return null;
+    }
+
+    @Nullable
+    private static RunnerAndConfigurationSettings runConfiguration(@Nullable Object item) {
+        var action = runConfAction(item);
+        return action == null ? null : action.getRunConfiguration();
     }
 
     @Override
@@ -23,15 +23,22 @@
 package ch.raffael.idea.plugins.runpopup;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Stream;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.swing.Icon;
 
 import com.intellij.execution.RunManager;
 import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.icons.AllIcons;
 import com.intellij.openapi.actionSystem.ActionGroup;
 import com.intellij.openapi.actionSystem.ActionManager;
 import com.intellij.openapi.actionSystem.ActionUpdateThread;
@@ -41,10 +48,16 @@ import com.intellij.openapi.actionSystem.Separator;
 import com.intellij.openapi.actionSystem.ToggleAction;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import static ch.raffael.idea.plugins.runpopup.LaunchTelemetry.launchTelemetry;
+import static ch.raffael.idea.plugins.runpopup.RunConfActionPool.runConfActionPool;
 import static ch.raffael.idea.plugins.runpopup.RunConfigurationUseTracker.runConfigurationUseTracker;
+import static ch.raffael.idea.plugins.runpopup.RunPopupLatency.runPopupLatency;
+import static ch.raffael.idea.plugins.runpopup.RunPopupSnapshot.runPopupSnapshot;
 
 
 /**
@@ -59,13 +72,29 @@ class RunPopupActionGroup extends ActionGroup {
     private static final AnAction[] NO_CHILDREN = new AnAction[0];
     private static final String EDIT_RUN_CONFIGURATIONS_ACTION_ID = "editRunConfigurations";
 
+    /**
+     * When grouping by folders, the maximum number of entries shown per
+     * section or folder, the rest goes into a "More..." group. Without
+     * grouping, all entries are shown, so speed search finds all of them.
+     */
+    static final int MAX_SECTION_ENTRIES = 50;
+
+    private static final int SLOWEST_TO_LAUNCH = 15;
+    private static final AnAction RELAUNCH_LAST = new RelaunchLastAction();
+
     @Nullable
     private Integer firstNonFavoriteIndex = null;
+    private volatile boolean outdated = false;
 
     RunPopupActionGroup() {
         super();
     }
 
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
     @NotNull
     @Override
     public AnAction[] getChildren(@Nullable AnActionEvent e) {
@@ -76,35 +105,32 @@ class RunPopupActionGroup extends ActionGroup {
         if ( project == null ) {
             return NO_CHILDREN;
         }
-        RunConfigurationUseTracker useTracker = runConfigurationUseTracker(project);
+        long start = RunPopupLatency.start();
+        var snapshot = runPopupSnapshot(project);
+        RunPopupModel model = snapshot.model();
+        outdated = !snapshot.isUpToDate();
         List<AnAction> children = new ArrayList<>();
-        if (useTracker.isLastUsedOnTop() && runConfigurations(project, false).limit(2).count() > 1) {
-            runConfigurations(project, true)
-                    .filter(c -> !useTracker.isHelper(c.getUniqueID()))
-                    .findFirst().ifPresent(c -> {
-                children.add(new RunConfActionGroup(c));
-                children.add(new Separator());
-            });
-        }
-        if ( appendRunConfigurationActions(project, children,
-                c -> useTracker.isFavorite(c.getUniqueID()),
-                useTracker.isOrderFavoritesByLastUsed()) ) {
+        RunConfActionPool actionPool = runConfActionPool(project);
+        boolean groupByFolders = runConfigurationUseTracker(project).isGroupByFolders();
+        model.getLastUsed().ifPresent(c -> {
+            children.add(actionPool.lastUsedAction(c));
+            children.add(RELAUNCH_LAST);
+            children.add(new Separator());
+        });
+        if ( appendRunConfigurationActions(actionPool, children, model.getFavorites(), groupByFolders) ) {
             children.add(new Separator());
             firstNonFavoriteIndex = children.size();
         }
         else {
             firstNonFavoriteIndex = null;
         }
-        boolean hasOthers = appendRunConfigurationActions(project, children,
-                c -> !useTracker.isFavorite(c.getUniqueID()) && !useTracker.isHelper(c.getUniqueID()),
-                useTracker.isOrderOthersByLastUsed());
+        boolean hasOthers = appendRunConfigurationActions(actionPool, children, model.getOthers(), groupByFolders);
         children.add(new Separator("Helpers"));
-        boolean hasHelpers = appendRunConfigurationActions(project, children,
-                c -> useTracker.isHelper(c.getUniqueID()),
-                useTracker.isOrderOthersByLastUsed());
+        boolean hasHelpers = appendRunConfigurationActions(actionPool, children, model.getHelpers(), groupByFolders);
         if (!hasOthers && !hasHelpers) {
             firstNonFavoriteIndex = null;
         }
+        appendLaunchSetActions(project, children);
         children.add(new Separator("Options"));
         children.add(new ActionGroup("Options", true) {
             @Override
@@ -116,7 +142,68 @@ class RunPopupActionGroup extends ActionGroup {
                 .ifPresentOrElse(
                         children::add,
                         () -> LOG.warn("Action not found: " + EDIT_RUN_CONFIGURATIONS_ACTION_ID));
-        return children.toArray(AnAction.EMPTY_ARRAY);
+        AnAction[] result = children.toArray(AnAction.EMPTY_ARRAY);
+        runPopupLatency().record(RunPopupLatency.Timer.POPUP_CHILDREN, start);
+        return result;
+    }
+
+    private static void appendLaunchSetActions(Project project, List<AnAction> target) {
+        var tracker = runConfigurationUseTracker(project);
+        var launchSets = tracker.getLaunchSets();
+        boolean running = !tracker.getRunningConfIds().isEmpty();
+        if (launchSets.isEmpty() && !running) {
+            return;
+        }
+        target.add(new Separator("Launch Sets"));
+        launchSets.forEach(ls -> target.add(new LaunchSetActionGroup(ls)));
+        if (running) {
+            target.add(new AnAction("Save Running as Launch Set...") {
+                @Override
+                public void actionPerformed(@NotNull AnActionEvent e) {
+                    saveRunningAsLaunchSet(project);
+                }
+
+                @Override
+                public @NotNull ActionUpdateThread getActionUpdateThread() {
+                    return ActionUpdateThread.BGT;
+                }
+            });
+        }
+    }
+
+    private static void saveRunningAsLaunchSet(Project project) {
+        var tracker = runConfigurationUseTracker(project);
+        var running = tracker.getRunningConfIds();
+        if (running.isEmpty()) {
+            return;
+        }
+        String name = Messages.showInputDialog(project,
+                "Save the " + running.size() + " running configurations as launch set:",
+                "Save Launch Set", Messages.getQuestionIcon());
+        if (name == null || name.isBlank()) {
+            return;
+        }
+        tracker.saveLaunchSet(name.trim(), RunManager.getInstance(project).getAllSettings().stream()
+                .map(RunnerAndConfigurationSettings::getUniqueID)
+                .filter(running::contains)
+                .collect(Collectors.toList()));
+    }
+
+    private static void showSlowestToLaunch(Project project) {
+        var slowest = launchTelemetry(project).slowestToLaunch(SLOWEST_TO_LAUNCH);
+        StringBuilder report = new StringBuilder();
+        if (slowest.isEmpty()) {
+            report.append("No launches recorded yet.");
+        }
+        for (LaunchTelemetry.Summary summary : slowest) {
+            report.append(String.format("%-40s median %8s   max %8s   (%d launches)%n", summary.getName(),
+                    LaunchTelemetry.formatDuration(summary.getMedianStartMillis()),
+                    LaunchTelemetry.formatDuration(summary.getMaxStartMillis()),
+                    summary.getLaunches()));
+        }
+        Messages.showInfoMessage(project,
+                "<html><pre>" + StringUtil.escapeXmlEntities(report.toString()) + "</pre></html>",
+                "Slowest to Launch");
     }
 
     @NotNull
@@ -157,33 +244,177 @@ class RunPopupActionGroup extends ActionGroup {
                 new BoolOptionAction("Order Others by Last Used",
                         RunConfigurationUseTracker::isOrderOthersByLastUsed,
                         RunConfigurationUseTracker::setOrderOthersByLastUsed),
+                new BoolOptionAction("Rank by Frequency and Recency",
+                        RunConfigurationUseTracker::isOrderByFrecency,
+                        RunConfigurationUseTracker::setOrderByFrecency),
                 new BoolOptionAction("Last Used Always on Top",
                         RunConfigurationUseTracker::isLastUsedOnTop,
-                        RunConfigurationUseTracker::setLastUsedOnTop)};
+                        RunConfigurationUseTracker::setLastUsedOnTop),
+                new BoolOptionAction("Group by Folders",
+                        RunConfigurationUseTracker::isGroupByFolders,
+                        RunConfigurationUseTracker::setGroupByFolders),
+                new BoolOptionAction("Build Highlighted Configuration in Background",
+                        RunConfigurationUseTracker::isSpeculativeBuild,
+                        RunConfigurationUseTracker::setSpeculativeBuild),
+                new AnAction("Slowest to Launch...") {
+                    @Override
+                    public void actionPerformed(@NotNull AnActionEvent e) {
+                        Project project = e.getProject();
+                        if (project != null) {
+                            showSlowestToLaunch(project);
+                        }
+                    }
+
+                    @Override
+                    public @NotNull ActionUpdateThread getActionUpdateThread() {
+                        return ActionUpdateThread.BGT;
+                    }
+                },
+                new ActionGroup("Concurrent Launches in Launch Sets", true) {
+                    private final AnAction[] children = IntStream.of(1, 2, 3, 4, 6, 8)
+                            .mapToObj(n -> new BoolOptionAction(String.valueOf(n),
+                                    t -> t.getLaunchSetConcurrency() == n,
+                                    (t, s) -> t.setLaunchSetConcurrency(n)))
+                            .toArray(AnAction[]::new);
+
+                    @Override
+                    public AnAction @NotNull [] getChildren(@Nullable AnActionEvent e) {
+                        return children;
+                    }
+
+                    @Override
+                    public @NotNull ActionUpdateThread getActionUpdateThread() {
+                        return ActionUpdateThread.BGT;
+                    }
+                },
+                new ActionGroup("Remember Recent Configurations", true) {
+                    private final AnAction[] children = IntStream.of(100, 250, 500, 1000, 5000, 0)
+                            .mapToObj(n -> new BoolOptionAction(n == 0 ? "Unlimited" : String.valueOf(n),
+                                    t -> t.getHistoryMaxEntries() == n,
+                                    (t, s) -> t.setHistoryMaxEntries(n)))
+                            .toArray(AnAction[]::new);
+
+                    @Override
+                    public AnAction @NotNull [] getChildren(@Nullable AnActionEvent e) {
+                        return children;
+                    }
+
+                    @Override
+                    public @NotNull ActionUpdateThread getActionUpdateThread() {
+                        return ActionUpdateThread.BGT;
+                    }
+                },
+                new ActionGroup("Forget Unused Configurations After", true) {
+                    private final AnAction[] children = IntStream.of(30, 90, 365, 0)
+                            .mapToObj(n -> new BoolOptionAction(n == 0 ? "Never" : n + " Days",
+                                    t -> t.getHistoryMaxAgeDays() == n,
+                                    (t, s) -> t.setHistoryMaxAgeDays(n)))
+                            .toArray(AnAction[]::new);
+
+                    @Override
+                    public AnAction @NotNull [] getChildren(@Nullable AnActionEvent e) {
+                        return children;
+                    }
+
+                    @Override
+                    public @NotNull ActionUpdateThread getActionUpdateThread() {
+                        return ActionUpdateThread.BGT;
+                    }
+                }};
     }
 
-    private boolean appendRunConfigurationActions(Project project, List<AnAction> target,
-                                                  Predicate<? super RunnerAndConfigurationSettings> filter,
-                                                  boolean sort) {
-        Stream<RunnerAndConfigurationSettings> stream = runConfigurations(project, sort).filter(filter);
-        int prevSize = target.size();
-        stream.map(RunConfActionGroup::new).forEach(target::add);
-        return target.size() > prevSize;
+    private boolean appendRunConfigurationActions(RunConfActionPool actionPool, List<AnAction> target,
+                                                  List<RunnerAndConfigurationSettings> runConfigurations,
+                                                  boolean groupByFolders) {
+        var entries = sectionEntries(actionPool, runConfigurations, groupByFolders);
+        if (groupByFolders) {
+            target.addAll(Arrays.asList(page(entries)));
+        }
+        else {
+            entries.forEach(entry -> target.add(entry.get()));
+        }
+        return !runConfigurations.isEmpty();
     }
 
-    private Stream<RunnerAndConfigurationSettings> runConfigurations(Project project, boolean sort) {
-        RunConfigurationUseTracker tracker = runConfigurationUseTracker(project);
-        var stream = RunManager.getInstance(project).getAllSettings().stream();
-        if ( sort ) {
-            stream = stream.sorted((left, right) -> -Long.compare(
-                    tracker.getLastRunTimestamp(left.getUniqueID()),
-                    tracker.getLastRunTimestamp(right.getUniqueID())));
+    /**
+     * The entries of a section. The actions are only created when an entry is
+     * actually shown. If grouping by folders, each folder becomes a single
+     * entry at the position of its first run configuration.
+     */
+    @NotNull
+    private static List<Supplier<AnAction>> sectionEntries(RunConfActionPool actionPool,
+                                                           List<RunnerAndConfigurationSettings> runConfigurations,
+                                                           boolean groupByFolders) {
+        List<Supplier<AnAction>> entries = new ArrayList<>();
+        Map<String, List<RunnerAndConfigurationSettings>> folders = groupByFolders ? new HashMap<>() : Map.of();
+        for (RunnerAndConfigurationSettings conf : runConfigurations) {
+            String folderName = groupByFolders ? conf.getFolderName() : null;
+            if (folderName == null) {
+                entries.add(() -> actionPool.action(conf));
+            }
+            else {
+                folders.computeIfAbsent(folderName, f -> {
+                    List<RunnerAndConfigurationSettings> folder = new ArrayList<>();
+                    entries.add(() -> new LazyGroup(f, AllIcons.Nodes.Folder,
+                            () -> sectionEntries(actionPool, folder, false)));
+                    return folder;
+                }).add(conf);
+            }
         }
-        return stream;
+        return entries;
+    }
+
+    /**
+     * Materialize the first {@link #MAX_SECTION_ENTRIES} entries, the rest
+     * will be materialized when the "More..." group is expanded.
+     */
+    @NotNull
+    private static AnAction[] page(List<Supplier<AnAction>> entries) {
+        int size = Math.min(entries.size(), MAX_SECTION_ENTRIES);
+        AnAction[] page = new AnAction[entries.size() > size ? size + 1 : size];
+        for (int i = 0; i < size; i++) {
+            page[i] = entries.get(i).get();
+        }
+        if (page.length > size) {
+            List<Supplier<AnAction>> more = entries.subList(size, entries.size());
+            page[size] = new LazyGroup("More\u2026", null, () -> more);
+        }
+        return page;
     }
 
     @SuppressWarnings("unused")
     Optional<Integer> getFirstNonFavoriteIndex() {
         return Optional.ofNullable(firstNonFavoriteIndex);
     }
+
+    /**
+     * Whether the children have last been built from an outdated snapshot.
+     */
+    boolean isOutdated() {
+        return outdated;
+    }
+
+    /**
+     * A sub-menu whose entries are computed when it's expanded.
+     */
+    private static final class LazyGroup extends ActionGroup {
+        private final Supplier<List<Supplier<AnAction>>> entries;
+
+        private LazyGroup(String name, @Nullable Icon icon, Supplier<List<Supplier<AnAction>>> entries) {
+            super(name, null, icon);
+            this.entries = entries;
+            setPopup(true);
+        }
+
+        @Override
+        public @NotNull ActionUpdateThread getActionUpdateThread() {
+            return ActionUpdateThread.BGT;
+        }
+
+        @NotNull
+        @Override
+        public AnAction[] getChildren(@Nullable AnActionEvent e) {
+            return page(entries.get());
+        }
+    }
 }
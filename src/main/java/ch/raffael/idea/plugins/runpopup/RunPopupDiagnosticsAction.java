@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package ch.raffael.idea.plugins.runpopup;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+import static ch.raffael.idea.plugins.runpopup.RunPopupLatency.runPopupLatency;
+
+
+/**
+ * Shows the latency histograms of the run popup, optionally writing them to
+ * the log.
+ *
+ * @author Raffael Herzog
+ */
+public class RunPopupDiagnosticsAction extends AnAction {
+
+    private static final Logger LOG = Logger.getInstance(RunPopupDiagnosticsAction.class);
+
+    private static final int CLOSE = 0;
+    private static final int WRITE_TO_LOG = 1;
+    private static final int RESET = 2;
+
+    public RunPopupDiagnosticsAction() {
+        super("Run Popup Diagnostics", "Show latency statistics of the run popup", null);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        String report = runPopupLatency().report();
+        int choice = Messages.showDialog(e.getProject(),
+                "<html><pre>" + StringUtil.escapeXmlEntities(report) + "</pre></html>",
+                "Run Popup Diagnostics",
+                new String[] {"Close", "Write to Log", "Reset"}, CLOSE, Messages.getInformationIcon());
+        if ( choice == WRITE_TO_LOG ) {
+            LOG.info("Run popup latencies:\n" + report);
+        }
+        else if ( choice == RESET ) {
+            runPopupLatency().reset();
+        }
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import org.jetbrains.annotations.NotNull;
+
+
+/**
+ * Latency histograms of the hot paths of the popup, shown by {@link
+ * RunPopupDiagnosticsAction}.
+ *
+ * @author Raffael Herzog
+ */
+@Service(Service.Level.APP)
+final class RunPopupLatency {
+
+    private final Map<Timer, Histogram> timers = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> validationByType = new ConcurrentHashMap<>();
+
+    RunPopupLatency() {
+        for (Timer timer : Timer.values()) {
+            timers.put(timer, new Histogram());
+        }
+    }
+
+    @NotNull
+    static RunPopupLatency runPopupLatency() {
+        return Objects.requireNonNull(ApplicationManager.getApplication().getService(RunPopupLatency.class),
+                "getApplication().getService(RunPopupLatency.class)");
+    }
+
+    /**
+     * Start a measurement, pass the result to {@link #record(Timer, long)}.
+     */
+    static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the time since the given start, returns the current time, so
+     * consecutive steps can be timed without calling {@link #start()} again.
+     */
+    long record(Timer timer, long start) {
+        long now = System.nanoTime();
+        timers.get(timer).record(now - start);
+        return now;
+    }
+
+    void recordValidation(String configurationType, long start) {
+        long nanos = System.nanoTime() - start;
+        timers.get(Timer.VALIDATION).record(nanos);
+        validationByType.computeIfAbsent(configurationType, t -> new Histogram()).record(nanos);
+    }
+
+    /**
+     * The number of measurements recorded by the given timer.
+     */
+    long count(Timer timer) {
+        return timers.get(timer).count.get();
+    }
+
+    void reset() {
+        timers.values().forEach(Histogram::reset);
+        validationByType.clear();
+    }
+
+    /**
+     * A human readable report of all timers.
+     */
+    @NotNull
+    String report() {
+        StringBuilder buf = new StringBuilder();
+        buf.append(String.format("%-32s %8s %10s %10s %10s %10s%n", "", "count", "p50", "p95", "p99", "max"));
+        for (Timer timer : Timer.values()) {
+            timers.get(timer).report(buf, timer.displayName);
+        }
+        if (!validationByType.isEmpty()) {
+            buf.append(String.format("%nValidation by configuration type:%n"));
+            new TreeMap<>(validationByType).forEach((type, histogram) -> histogram.report(buf, type));
+        }
+        return buf.toString();
+    }
+
+    enum Timer {
+        POPUP_OPEN("Open popup"),
+        POPUP_CHILDREN("Build popup items"),
+        ITEM_UPDATE("Update item"),
+        ITEM_UPDATE_EXECUTOR("  executor resolution"),
+        ITEM_UPDATE_ICON("  icon composition"),
+        VALIDATION("Validate (checkSettings)"),
+        SNAPSHOT_REBUILD("Rebuild snapshot"),
+        LAUNCH_TO_START("Launch until process started");
+
+        private final String displayName;
+
+        Timer(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+
+    /**
+     * A lock-free histogram with logarithmic buckets, each power of two is
+     * split into 8 linear sub-buckets. That's a relative error of at most
+     * 12.5%, good enough to tell milliseconds from seconds.
+     */
+    private static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        private void record(long nanos) {
+            nanos = Math.max(nanos, 0);
+            buckets.incrementAndGet(bucket(nanos));
+            count.incrementAndGet();
+            max.accumulateAndGet(nanos, Math::max);
+        }
+
+        private static int bucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        /**
+         * The upper bound of the values in the given bucket.
+         */
+        private static long bucketLimit(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            long subBucket = bucket % SUB_BUCKETS;
+            return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+
+        private long percentile(double percentile) {
+            long count = this.count.get();
+            if (count == 0) {
+                return 0;
+            }
+            long threshold = (long) Math.ceil(count * percentile);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= threshold) {
+                    return Math.min(bucketLimit(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        private void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            max.set(0);
+        }
+
+        private void report(StringBuilder buf, String name) {
+            buf.append(String.format("%-32s %8d %10s %10s %10s %10s%n", name, count.get(),
+                    format(percentile(.5)), format(percentile(.95)), format(percentile(.99)), format(max.get())));
+        }
+
+        private static String format(long nanos) {
+            if (nanos < 1_000_000) {
+                return String.format("%.1fus", nanos / 1_000.0);
+            }
+            else if (nanos < 1_000_000_000) {
+                return String.format("%.1fms", nanos / 1_000_000.0);
+            }
+            else {
+                return String.format("%.2fs", nanos / 1_000_000_000.0);
+            }
+        }
+    }
+}
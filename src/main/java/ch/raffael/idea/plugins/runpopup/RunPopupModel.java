@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * The contents of the run popup: the run configurations partitioned into
+ * the last used one, favorites, others and helpers, each section already in
+ * the order it should be displayed in.
+ *
+ * @author Raffael Herzog
+ */
+final class RunPopupModel {
+
+    @Nullable
+    private final RunnerAndConfigurationSettings lastUsed;
+    private final List<RunnerAndConfigurationSettings> favorites;
+    private final List<RunnerAndConfigurationSettings> others;
+    private final List<RunnerAndConfigurationSettings> helpers;
+
+    private RunPopupModel(@Nullable RunnerAndConfigurationSettings lastUsed,
+                          List<RunnerAndConfigurationSettings> favorites,
+                          List<RunnerAndConfigurationSettings> others,
+                          List<RunnerAndConfigurationSettings> helpers) {
+        this.lastUsed = lastUsed;
+        this.favorites = favorites;
+        this.others = others;
+        this.helpers = helpers;
+    }
+
+    @NotNull
+    static RunPopupModel build(Collection<? extends RunnerAndConfigurationSettings> runConfigurations,
+                               RunConfigurationUseTracker tracker) {
+        boolean sortFavorites = tracker.isOrderFavoritesByLastUsed();
+        boolean sortOthers = tracker.isOrderOthersByLastUsed();
+        List<Item> items = new ArrayList<>(runConfigurations.size());
+        Map<String, Item> itemsById = new HashMap<>();
+        Sections sections = new Sections();
+        for (RunnerAndConfigurationSettings conf : runConfigurations) {
+            String confId = conf.getUniqueID();
+            Item item;
+            if (tracker.isHelper(confId)) {
+                item = new Item(conf, sections.helpers, sortOthers);
+            } else if (tracker.isFavorite(confId)) {
+                item = new Item(conf, sections.favorites, sortFavorites);
+            } else {
+                item = new Item(conf, sections.others, sortOthers);
+            }
+            if (!item.sorted) {
+                item.section.add(conf);
+            }
+            items.add(item);
+            itemsById.put(confId, item);
+        }
+        boolean findLastUsed = tracker.isLastUsedOnTop() && items.size() > 1;
+        RunnerAndConfigurationSettings lastUsed = null;
+        if (findLastUsed || sortFavorites || sortOthers) {
+            // the tracker keeps its entries ordered by last use, so walking
+            // through them yields each section in order without sorting
+            Iterator<String> byLastUse = tracker.lastUsedConfIds().iterator();
+            while (byLastUse.hasNext()) {
+                Item item = itemsById.remove(byLastUse.next());
+                if (item == null) {
+                    continue;
+                }
+                if (lastUsed == null && item.section != sections.helpers) {
+                    lastUsed = item.settings;
+                    if (!sortFavorites && !sortOthers) {
+                        break;
+                    }
+                }
+                if (item.sorted) {
+                    item.section.add(item.settings);
+                    item.sorted = false;
+                }
+            }
+            // never used: keep the order of the run configurations settings
+            for (Item item : items) {
+                if (lastUsed == null && item.section != sections.helpers) {
+                    lastUsed = item.settings;
+                }
+                if (item.sorted) {
+                    item.section.add(item.settings);
+                }
+            }
+        }
+        if (tracker.isOrderByFrecency()) {
+            long now = System.currentTimeMillis();
+            if (sortFavorites) {
+                sortByLaunchScore(sections.favorites, tracker, now);
+            }
+            if (sortOthers) {
+                sortByLaunchScore(sections.others, tracker, now);
+                sortByLaunchScore(sections.helpers, tracker, now);
+            }
+        }
+        return new RunPopupModel(
+                findLastUsed ? lastUsed : null,
+                List.copyOf(sections.favorites),
+                List.copyOf(sections.others),
+                List.copyOf(sections.helpers));
+    }
+
+    /**
+     * Sort a section by launch score, highest first. The section is already
+     * ordered by last use, that's kept for equal scores (e.g. run
+     * configurations that have never been launched).
+     *
+     * <p>The score and position of each entry are packed into a long, so
+     * this is one pass collecting the scores and a primitive sort. The bits
+     * of a non-negative float are ordered like the float itself.
+     */
+    private static void sortByLaunchScore(List<RunnerAndConfigurationSettings> section,
+                                          RunConfigurationUseTracker tracker, long now) {
+        if (section.size() < 2) {
+            return;
+        }
+        long[] keys = new long[section.size()];
+        for (int i = 0; i < keys.length; i++) {
+            float score = (float) tracker.getLaunchScore(section.get(i).getUniqueID(), now);
+            keys[i] = ((long) Float.floatToIntBits(score) << 32) | (Integer.MAX_VALUE - i);
+        }
+        Arrays.sort(keys);
+        RunnerAndConfigurationSettings[] sorted = new RunnerAndConfigurationSettings[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = section.get(Integer.MAX_VALUE - (int) keys[keys.length - 1 - i]);
+        }
+        section.clear();
+        section.addAll(Arrays.asList(sorted));
+    }
+
+    /**
+     * The run configuration to show on top of the popup, if any.
+     */
+    Optional<RunnerAndConfigurationSettings> getLastUsed() {
+        return Optional.ofNullable(lastUsed);
+    }
+
+    List<RunnerAndConfigurationSettings> getFavorites() {
+        return favorites;
+    }
+
+    List<RunnerAndConfigurationSettings> getOthers() {
+        return others;
+    }
+
+    List<RunnerAndConfigurationSettings> getHelpers() {
+        return helpers;
+    }
+
+    private static final class Sections {
+        private final List<RunnerAndConfigurationSettings> favorites = new ArrayList<>();
+        private final List<RunnerAndConfigurationSettings> others = new ArrayList<>();
+        private final List<RunnerAndConfigurationSettings> helpers = new ArrayList<>();
+    }
+
+    private static final class Item {
+        private final RunnerAndConfigurationSettings settings;
+        private final List<RunnerAndConfigurationSettings> section;
+        /**
+         * Whether the item still needs to be added to its section in order
+         * of last use.
+         */
+        private boolean sorted;
+
+        private Item(RunnerAndConfigurationSettings settings,
+                     List<RunnerAndConfigurationSettings> section, boolean sorted) {
+            this.settings = settings;
+            this.section = section;
+            this.sorted = sorted;
+        }
+    }
+}
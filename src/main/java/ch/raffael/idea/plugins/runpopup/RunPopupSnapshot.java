@@ -0,0 +1,254 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.intellij.execution.RunManager;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.concurrency.CancellablePromise;
+
+import static ch.raffael.idea.plugins.runpopup.RunConfigurationUseTracker.runConfigurationUseTracker;
+import static ch.raffael.idea.plugins.runpopup.RunPopupLatency.runPopupLatency;
+
+
+/**
+ * Keeps a ready-to-render {@link RunPopupModel} and {@link
+ * RunConfSearchIndex} for the project, rebuilt in the background when the
+ * run configurations or the tracked information change.
+ *
+ * @author Raffael Herzog
+ */
+@Service(Service.Level.PROJECT)
+final class RunPopupSnapshot implements Disposable {
+
+    private final Project project;
+    private final ExecutorService executor =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor("Run Popup Snapshot", 1);
+
+    private final AtomicLong runManagerModificationCount = new AtomicLong();
+    @Nullable
+    private volatile Snapshot current = null;
+    @Nullable
+    private volatile CancellablePromise<Snapshot> pendingRebuild = null;
+
+    RunPopupSnapshot(Project project) {
+        this.project = project;
+        runConfigurationUseTracker(project).addChangeListener(this::invalidate, this);
+    }
+
+    @NotNull
+    static RunPopupSnapshot runPopupSnapshot(Project project) {
+        return Objects.requireNonNull(project.getService(RunPopupSnapshot.class),
+                "project.getService(RunPopupSnapshot.class)");
+    }
+
+    /**
+     * Get the current model, even if it's outdated. If there's no snapshot
+     * at all yet, it's built synchronously, or an empty model is returned
+     * on the EDT.
+     */
+    @NotNull
+    RunPopupModel model() {
+        var current = currentSnapshot();
+        if (current != null) {
+            return current.model;
+        }
+        if (ApplicationManager.getApplication().isDispatchThread()) {
+            return RunPopupModel.build(List.of(), runConfigurationUseTracker(project));
+        }
+        return rebuild().model;
+    }
+
+    /**
+     * Get the current model, even if it's outdated, {@code null} if there's
+     * no snapshot yet. Never builds anything, a rebuild is scheduled if
+     * needed.
+     */
+    @Nullable
+    RunPopupModel currentModel() {
+        var current = currentSnapshot();
+        return current == null ? null : current.model;
+    }
+
+    /**
+     * Get the search index of the current snapshot, even if it's outdated,
+     * {@code null} if there's no snapshot yet. Never builds anything, a
+     * rebuild is scheduled if needed.
+     */
+    @Nullable
+    RunConfSearchIndex currentSearchIndex() {
+        var current = currentSnapshot();
+        return current == null ? null : current.searchIndex;
+    }
+
+    boolean isUpToDate() {
+        var current = this.current;
+        return current != null && current.isUpToDate();
+    }
+
+    /**
+     * Run the callback once the snapshot is up to date, right away if it
+     * already is. The callback may be called from any thread.
+     */
+    void whenUpToDate(Runnable callback) {
+        if (isUpToDate()) {
+            callback.run();
+            return;
+        }
+        var pending = pendingRebuild;
+        if (pending == null || pending.isDone()) {
+            pending = scheduleRebuild();
+        }
+        var awaited = pending;
+        awaited.onProcessed(snapshot -> {
+            if (project.isDisposed()) {
+                return;
+            }
+            if (isUpToDate()) {
+                callback.run();
+            }
+            else if (pendingRebuild != awaited) {
+                // superseded by a newer rebuild, wait for that one; if it
+                // was the last one and failed, give up
+                whenUpToDate(callback);
+            }
+        });
+    }
+
+    @Nullable
+    private Snapshot currentSnapshot() {
+        var current = this.current;
+        if (current == null || !current.isUpToDate()) {
+            var pending = pendingRebuild;
+            if (pending == null || pending.isDone()) {
+                scheduleRebuild();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Schedule a rebuild of the snapshot in the background. Multiple
+     * requests are coalesced.
+     */
+    void invalidate() {
+        scheduleRebuild();
+    }
+
+    @NotNull
+    private CancellablePromise<Snapshot> scheduleRebuild() {
+        var pending = ReadAction.nonBlocking(this::rebuild)
+                .expireWith(this)
+                .coalesceBy(this)
+                .submit(executor);
+        pendingRebuild = pending;
+        return pending;
+    }
+
+    /**
+     * Rebuild the snapshot, reusing as much of the previous one as possible.
+     * If only the tracked information changed (e.g. on each launch), the run
+     * configurations aren't queried from the {@code RunManager} again. The
+     * search index reuses the precomputed strings of unchanged run
+     * configurations. The model itself is always rebuilt.
+     */
+    @NotNull
+    private Snapshot rebuild() {
+        long start = RunPopupLatency.start();
+        var tracker = runConfigurationUseTracker(project);
+        // read the stamps first: if anything changes while building, the
+        // snapshot will be outdated right away
+        long runManagerStamp = runManagerModificationCount.get();
+        long trackerStamp = tracker.getModificationCount();
+        var previous = current;
+        List<RunnerAndConfigurationSettings> settings;
+        if (previous != null && previous.runManagerModificationCount == runManagerStamp) {
+            settings = previous.settings;
+        }
+        else {
+            settings = List.copyOf(RunManager.getInstance(project).getAllSettings());
+        }
+        var snapshot = new Snapshot(runManagerStamp, trackerStamp, settings,
+                RunPopupModel.build(settings, tracker),
+                RunConfSearchIndex.build(settings, tracker, previous == null ? null : previous.searchIndex));
+        current = snapshot;
+        runPopupLatency().record(RunPopupLatency.Timer.SNAPSHOT_REBUILD, start);
+        return snapshot;
+    }
+
+    void runManagerChanged() {
+        runManagerModificationCount.incrementAndGet();
+        invalidate();
+    }
+
+    @Override
+    public void dispose() {
+        current = null;
+    }
+
+    private final class Snapshot {
+        private final long runManagerModificationCount;
+        private final long trackerModificationCount;
+        private final List<RunnerAndConfigurationSettings> settings;
+        private final RunPopupModel model;
+        private final RunConfSearchIndex searchIndex;
+
+        private Snapshot(long runManagerModificationCount, long trackerModificationCount,
+                         List<RunnerAndConfigurationSettings> settings,
+                         RunPopupModel model, RunConfSearchIndex searchIndex) {
+            this.runManagerModificationCount = runManagerModificationCount;
+            this.trackerModificationCount = trackerModificationCount;
+            this.settings = settings;
+            this.model = model;
+            this.searchIndex = searchIndex;
+        }
+
+        private boolean isUpToDate() {
+            return runManagerModificationCount == RunPopupSnapshot.this.runManagerModificationCount.get()
+                    && trackerModificationCount == runConfigurationUseTracker(project).getModificationCount();
+        }
+    }
+
+    /**
+     * Build the first snapshot in the background when the project is opened.
+     */
+    public static class MyStartupActivity implements StartupActivity.DumbAware {
+        @Override
+        public void runActivity(@NotNull Project project) {
+            runPopupSnapshot(project).invalidate();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.util.Objects;
+import java.util.Set;
+
+import javax.swing.Timer;
+
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.task.ProjectTaskManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static ch.raffael.idea.plugins.runpopup.RunConfigurationUseTracker.runConfigurationUseTracker;
+
+
+/**
+ * Builds the modules of the run configuration highlighted in the popup in
+ * the background, so the before-run build of its launch finds them up to
+ * date. All methods must be called on the EDT.
+ *
+ * @author Raffael Herzog
+ */
+@Service(Service.Level.PROJECT)
+final class SpeculativeBuild implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(SpeculativeBuild.class);
+
+    static final int DELAY_MILLIS = 600;
+
+    private final Project project;
+    private final Timer timer;
+    @Nullable
+    private RunnerAndConfigurationSettings highlighted = null;
+    @Nullable
+    private volatile Set<Module> building = null;
+
+    SpeculativeBuild(Project project) {
+        this.project = project;
+        timer = new Timer(DELAY_MILLIS, e -> buildHighlighted());
+        timer.setRepeats(false);
+    }
+
+    @NotNull
+    static SpeculativeBuild speculativeBuild(Project project) {
+        return Objects.requireNonNull(project.getService(SpeculativeBuild.class),
+                "project.getService(SpeculativeBuild.class)");
+    }
+
+    /**
+     * The selection of the popup moved to the given run configuration (or to
+     * something else if {@code null}).
+     */
+    void highlighted(@Nullable RunnerAndConfigurationSettings settings) {
+        if (settings == highlighted) {
+            return;
+        }
+        highlighted = settings;
+        if (settings == null || BeforeLaunchBuild.modules(settings).isEmpty()) {
+            timer.stop();
+        }
+        else {
+            timer.restart();
+        }
+    }
+
+    /**
+     * Cancel the pending build, e.g. because the popup has been closed.
+     */
+    void cancel() {
+        highlighted = null;
+        timer.stop();
+    }
+
+    private void buildHighlighted() {
+        var settings = highlighted;
+        if (settings == null || building != null || project.isDisposed() || DumbService.isDumb(project)
+                || runConfigurationUseTracker(project).isLaunchPending()) {
+            return;
+        }
+        var modules = BeforeLaunchBuild.modules(settings);
+        if (modules.isEmpty()) {
+            return;
+        }
+        LOG.debug("Speculatively building " + modules + " for " + settings.getName());
+        building = modules;
+        ProjectTaskManager.getInstance(project).build(modules.toArray(Module[]::new))
+                .onProcessed(result -> building = null);
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright 2026 Raffael Herzog
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+
+package ch.raffael.idea.plugins.runpopup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.intellij.execution.ExecutionListener;
+import com.intellij.execution.ExecutionManager;
+import com.intellij.execution.Executor;
+import com.intellij.execution.RunManager;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.execution.configurations.ConfigurationFactory;
+import com.intellij.execution.configurations.ConfigurationType;
+import com.intellij.execution.configurations.RunConfiguration;
+import com.intellij.execution.configurations.RunConfigurationBase;
+import com.intellij.execution.configurations.RunProfile;
+import com.intellij.execution.configurations.RunProfileState;
+import com.intellij.execution.configurations.RunnerSettings;
+import com.intellij.execution.configurations.SimpleConfigurationType;
+import com.intellij.execution.executors.DefaultRunExecutor;
+import com.intellij.execution.process.NopProcessHandler;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.execution.runners.ProgramRunner;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionGroup;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.Presentation;
+import com.intellij.openapi.actionSystem.ex.ActionUtil;
+import com.intellij.openapi.actionSystem.impl.SimpleDataContext;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.options.SettingsEditor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.NotNullLazyValue;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.TestActionEvent;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static ch.raffael.idea.plugins.runpopup.RunConfigurationUseTracker.runConfigurationUseTracker;
+import static ch.raffael.idea.plugins.runpopup.RunPopupLatency.runPopupLatency;
+import static ch.raffael.idea.plugins.runpopup.RunPopupSnapshot.runPopupSnapshot;
+
+
+/**
+ * Opens the popup with thousands of real run configurations and floods it
+ * with launch events. Asserts counts and allocations instead of timings, so
+ * it doesn't fail on a busy machine, but it does if O(n^2) work sneaks back
+ * into the popup.
+ *
+ * @author Raffael Herzog
+ */
+public class RunPopupScalingTest extends BasePlatformTestCase {
+
+    private static final int SMALL = 500;
+    private static final int LARGE = 2000;
+    private static final int CONFIGURATIONS_PER_FOLDER = 40;
+    private static final int BURST = 500;
+    /**
+     * 4 times the run configurations may allocate at most this many times
+     * as much. Linear would be 4, quadratic 16.
+     */
+    private static final double MAX_GROWTH = 8;
+    /**
+     * The maximum number of bytes allocated per run configuration for
+     * building the popup items and for updating them.
+     */
+    private static final long CHILDREN_ALLOCATION_BUDGET = 1024;
+    private static final long UPDATE_ALLOCATION_BUDGET = 4096;
+    private static final int ROUNDS = 5;
+
+    private final TestConfigurationType configurationType = new TestConfigurationType();
+    private final TestProgramRunner programRunner = new TestProgramRunner();
+    private final List<RunnerAndConfigurationSettings> runConfigurations = new ArrayList<>();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ConfigurationType.CONFIGURATION_TYPE_EP.getPoint().registerExtension(configurationType, getTestRootDisposable());
+        ProgramRunner.PROGRAM_RUNNER_EP.getPoint().registerExtension(programRunner, getTestRootDisposable());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            // the light project is reused by the next test
+            var runManager = RunManager.getInstance(getProject());
+            runConfigurations.forEach(runManager::removeConfiguration);
+            runConfigurations.clear();
+            runConfigurationUseTracker(getProject()).setGroupByFolders(false);
+        }
+        catch (Throwable e) {
+            addSuppressedException(e);
+        }
+        finally {
+            super.tearDown();
+        }
+    }
+
+    public void testGroupByFoldersPagesSections() throws Exception {
+        addRunConfigurations(LARGE, false);
+        runConfigurationUseTracker(getProject()).setGroupByFolders(true);
+        waitUntilUpToDate();
+        List<RunConfActionGroup> all = new ArrayList<>();
+        int pages = 0;
+        AnAction[] page = inBackground(() -> children(new RunPopupActionGroup()));
+        while (page != null) {
+            pages++;
+            List<RunConfActionGroup> items = runConfActions(page);
+            assertTrue("Page " + pages + " has " + items.size() + " items",
+                    items.size() <= RunPopupActionGroup.MAX_SECTION_ENTRIES);
+            all.addAll(items);
+            ActionGroup more = moreGroup(page);
+            page = more == null ? null : inBackground(() -> children(more));
+        }
+        assertEquals(LARGE / RunPopupActionGroup.MAX_SECTION_ENTRIES, pages);
+        assertEquals(LARGE, all.size());
+        assertEquals(new HashSet<>(runConfigurations), all.stream()
+                .map(RunConfActionGroup::getRunConfiguration)
+                .collect(Collectors.toSet()));
+    }
+
+    public void testGroupByFoldersExpandsFoldersLazily() throws Exception {
+        addRunConfigurations(LARGE, true);
+        runConfigurationUseTracker(getProject()).setGroupByFolders(true);
+        waitUntilUpToDate();
+        AnAction[] children = inBackground(() -> children(new RunPopupActionGroup()));
+        assertEmpty(runConfActions(children));
+        ActionGroup folder = Arrays.stream(children)
+                .filter(a -> "Folder 0".equals(a.getTemplateText()))
+                .map(ActionGroup.class::cast)
+                .findFirst().orElse(null);
+        assertNotNull("Folder 0 not found", folder);
+        assertNull("Too many folders for one page", moreGroup(children));
+        assertEquals(CONFIGURATIONS_PER_FOLDER, runConfActions(inBackground(() -> children(folder))).size());
+    }
+
+    public void testActionsAreReused() throws Exception {
+        addRunConfigurations(SMALL, false);
+        List<RunConfActionGroup> first = runConfActions(inBackground(() -> children(new RunPopupActionGroup())));
+        List<RunConfActionGroup> second = runConfActions(inBackground(() -> children(new RunPopupActionGroup())));
+        assertEquals(SMALL, first.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertSame(first.get(i), second.get(i));
+        }
+    }
+
+    public void testPopupScalesLinearly() throws Exception {
+        addRunConfigurations(SMALL, false);
+        Allocations small = inBackground(this::measurePopup);
+        addRunConfigurations(LARGE - SMALL, false);
+        Allocations large = inBackground(this::measurePopup);
+        assertScalesLinearly("Building the popup items", small.children, large.children, CHILDREN_ALLOCATION_BUDGET);
+        assertScalesLinearly("Updating the popup items", small.update, large.update, UPDATE_ALLOCATION_BUDGET);
+    }
+
+    public void testLaunchBurstsCoalesce() throws Exception {
+        addRunConfigurations(LARGE, false);
+        var tracker = runConfigurationUseTracker(getProject());
+        long rebuilds = runPopupLatency().count(RunPopupLatency.Timer.SNAPSHOT_REBUILD);
+        ExecutionListener listener = getProject().getMessageBus().syncPublisher(ExecutionManager.EXECUTION_TOPIC);
+        Executor executor = DefaultRunExecutor.getRunExecutorInstance();
+        List<ExecutionEnvironment> environments = new ArrayList<>();
+        List<ProcessHandler> handlers = new ArrayList<>();
+        for (int i = 0; i < BURST; i++) {
+            var env = new ExecutionEnvironment(executor, programRunner,
+                    runConfigurations.get(i * LARGE / BURST), getProject());
+            env.assignNewExecutionId();
+            var handler = new NopProcessHandler();
+            listener.processStartScheduled(executor.getId(), env);
+            listener.processStarted(executor.getId(), env, handler);
+            environments.add(env);
+            handlers.add(handler);
+        }
+        assertFalse(tracker.isLaunchPending());
+        assertEquals(BURST, tracker.getRunningConfIds().size());
+        for (int i = 0; i < BURST; i++) {
+            listener.processTerminated(executor.getId(), environments.get(i), handlers.get(i), 0);
+        }
+        assertEmpty(tracker.getRunningConfIds());
+        waitUntilUpToDate();
+        long burstRebuilds = runPopupLatency().count(RunPopupLatency.Timer.SNAPSHOT_REBUILD) - rebuilds;
+        assertTrue(BURST + " launches caused " + burstRebuilds + " snapshot rebuilds", burstRebuilds < BURST / 10);
+        for (ExecutionEnvironment env : environments) {
+            assertEquals(executor.getId(),
+                    tracker.getLastRunExecutorId(env.getRunnerAndConfigurationSettings().getUniqueID()));
+        }
+        assertTrue(runPopupSnapshot(getProject()).model().getLastUsed().isPresent());
+    }
+
+    private void addRunConfigurations(int count, boolean inFolders) {
+        var runManager = RunManager.getInstance(getProject());
+        for (int i = runConfigurations.size(), end = i + count; i < end; i++) {
+            var settings = runManager.createConfiguration(
+                    "Run Module" + (i / CONFIGURATIONS_PER_FOLDER) + "Tests with profile " + i, configurationType);
+            if (inFolders) {
+                settings.setFolderName("Folder " + (i / CONFIGURATIONS_PER_FOLDER));
+            }
+            runManager.addConfiguration(settings);
+            runConfigurations.add(settings);
+        }
+        waitUntilUpToDate();
+    }
+
+    private void waitUntilUpToDate() {
+        var snapshot = runPopupSnapshot(getProject());
+        // schedules a rebuild if needed
+        snapshot.whenUpToDate(() -> {});
+        PlatformTestUtil.waitWithEventsDispatching("The snapshot hasn't been rebuilt", snapshot::isUpToDate, 60);
+    }
+
+    /**
+     * Measure the allocations of building and updating the popup items, with
+     * the actions already pooled.
+     */
+    private Allocations measurePopup() {
+        var group = new RunPopupActionGroup();
+        List<RunConfActionGroup> items = runConfActions(children(group));
+        assertEquals(runConfigurations.size(), items.size());
+        for (RunConfActionGroup item : items) {
+            var presentation = update(item);
+            assertTrue(presentation.isVisible());
+            assertEquals(item.getRunConfiguration().getName(), presentation.getText());
+        }
+        return new Allocations(allocatedBytes(() -> children(group)),
+                allocatedBytes(() -> items.forEach(this::update)));
+    }
+
+    private static void assertScalesLinearly(String operation, long small, long large, long allocationBudget) {
+        double growth = (double) large / Math.max(small, 1);
+        assertTrue(String.format("%s: %d run configurations allocated %.1f times as much as %d (max %.0f)",
+                        operation, LARGE, growth, SMALL, MAX_GROWTH),
+                growth <= MAX_GROWTH);
+        assertTrue(String.format("%s: allocated %d bytes per run configuration (budget %d)",
+                        operation, large / LARGE, allocationBudget),
+                large / LARGE <= allocationBudget);
+    }
+
+    /**
+     * The fewest bytes the operation allocated in {@link #ROUNDS} runs, the
+     * first runs may allocate more until everything is initialized.
+     */
+    private static long allocatedBytes(Runnable operation) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            operation.run();
+            min = Math.min(min, threads.getCurrentThreadAllocatedBytes() - before);
+        }
+        return min;
+    }
+
+    /**
+     * Run the task in a background read action, like the platform updates
+     * and expands actions with {@link com.intellij.openapi.actionSystem.ActionUpdateThread#BGT}.
+     */
+    private static <T> T inBackground(Callable<T> task) throws Exception {
+        return ApplicationManager.getApplication()
+                .executeOnPooledThread(() -> ReadAction.compute(task::call))
+                .get(1, TimeUnit.MINUTES);
+    }
+
+    private AnAction[] children(ActionGroup group) {
+        AnActionEvent e = event(group);
+        ActionUtil.performDumbAwareUpdate(group, e, false);
+        return group.getChildren(e);
+    }
+
+    private Presentation update(AnAction action) {
+        AnActionEvent e = event(action);
+        ActionUtil.performDumbAwareUpdate(action, e, false);
+        return e.getPresentation();
+    }
+
+    private AnActionEvent event(AnAction action) {
+        return TestActionEvent.createTestEvent(action, SimpleDataContext.getProjectContext(getProject()));
+    }
+
+    private static List<RunConfActionGroup> runConfActions(AnAction[] actions) {
+        return Arrays.stream(actions)
+                .filter(RunConfActionGroup.class::isInstance)
+                .map(RunConfActionGroup.class::cast)
+                .collect(Collectors.toList());
+    }
+
+    @Nullable
+    private static ActionGroup moreGroup(AnAction[] actions) {
+        return Arrays.stream(actions)
+                .filter(a -> "More\u2026".equals(a.getTemplateText()))
+                .map(ActionGroup.class::cast)
+                .findFirst().orElse(null);
+    }
+
+    private static final class Allocations {
+        private final long children;
+        private final long update;
+
+        private Allocations(long children, long update) {
+            this.children = children;
+            this.update = update;
+        }
+    }
+
+    private static final class TestConfigurationType extends SimpleConfigurationType {
+        private TestConfigurationType() {
+            super("RunPopupTest", "Run Popup Test", null,
+                    NotNullLazyValue.createValue(() -> AllIcons.RunConfigurations.Application));
+        }
+
+        @NotNull
+        @Override
+        public RunConfiguration createTemplateConfiguration(@NotNull Project project) {
+            return new TestRunConfiguration(project, this);
+        }
+    }
+
+    private static final class TestRunConfiguration extends RunConfigurationBase<Object> {
+        private TestRunConfiguration(Project project, ConfigurationFactory factory) {
+            super(project, factory, null);
+        }
+
+        @NotNull
+        @Override
+        public SettingsEditor<? extends RunConfiguration> getConfigurationEditor() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Nullable
+        @Override
+        public RunProfileState getState(@NotNull Executor executor, @NotNull ExecutionEnvironment environment) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs the test run configurations with the Run executor only. Never
+     * actually runs them, the test fires the execution events itself.
+     */
+    private static final class TestProgramRunner implements ProgramRunner<RunnerSettings> {
+        @NotNull
+        @Override
+        public String getRunnerId() {
+            return "RunPopupTest";
+        }
+
+        @Override
+        public boolean canRun(@NotNull String executorId, @NotNull RunProfile profile) {
+            return profile instanceof TestRunConfiguration && executorId.equals(DefaultRunExecutor.EXECUTOR_ID);
+        }
+
+        @Override
+        public void execute(@NotNull ExecutionEnvironment environment) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}